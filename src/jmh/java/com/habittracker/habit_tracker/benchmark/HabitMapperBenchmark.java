@@ -0,0 +1,52 @@
+package com.habittracker.habit_tracker.benchmark;
+
+import com.habittracker.habit_tracker.dto.mapper.HabitMapper;
+import com.habittracker.habit_tracker.dto.response.HabitResponse;
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HabitMapperBenchmark {
+
+    private final HabitMapper habitMapper = new HabitMapper();
+
+    private Habit habit;
+
+    @Setup
+    public void setUp() {
+        User user = User.builder()
+                .id(1L)
+                .username("benchmark")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build();
+
+        habit = Habit.builder()
+                .id(1L)
+                .name("Read")
+                .description("Read 30 min")
+                .frequency(Frequency.DAILY)
+                .targetCount(1)
+                .currentStreak(12)
+                .longestStreak(30)
+                .lastCompleted(LocalDate.of(2024, 5, 14))
+                .user(user)
+                .build();
+    }
+
+    @Benchmark
+    public HabitResponse toResponse() {
+        return habitMapper.toResponse(habit);
+    }
+}
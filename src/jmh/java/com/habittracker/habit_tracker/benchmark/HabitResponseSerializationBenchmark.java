@@ -0,0 +1,57 @@
+package com.habittracker.habit_tracker.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.habit_tracker.dto.response.HabitResponse;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cuerpo de GET /api/habits: la lista de hábitos de un usuario serializada a JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HabitResponseSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int habits;
+
+    private ObjectMapper objectMapper;
+    private List<HabitResponse> responses;
+
+    @Setup
+    public void setUp() {
+        // Misma configuración base que el ObjectMapper de Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        responses = new ArrayList<>(habits);
+        for (int i = 0; i < habits; i++) {
+            responses.add(HabitResponse.builder()
+                    .id((long) i)
+                    .name("Habit " + i)
+                    .description("Description of habit " + i)
+                    .frequency(Frequency.values()[i % Frequency.values().length])
+                    .targetCount(1)
+                    .currentStreak(i)
+                    .longestStreak(i * 2)
+                    .lastCompleted(LocalDate.of(2024, 5, 14))
+                    .userId(1L)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] writeHabitList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+}
@@ -0,0 +1,55 @@
+package com.habittracker.habit_tracker.benchmark;
+
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * validateToken con un token ya visto sale de la caché de claims;
+ * generateToken firma siempre (HMAC-SHA).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret",
+                "benchmarkSecretKeyForJWT123456789ThisIsAVeryLongSecretKey");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "cacheMaxSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(jwtTokenProvider, "init");
+
+        user = User.builder()
+                .id(1L)
+                .username("benchmark")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build();
+        token = jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+}
@@ -0,0 +1,72 @@
+package com.habittracker.habit_tracker.benchmark;
+
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.service.StreakCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reglas de racha de HabitService (extraídas en StreakCalculator).
+ * Se mide el caso "continúa la racha", que es el que recorre todas las comparaciones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StreakCalculatorBenchmark {
+
+    private final StreakCalculator streakCalculator = new StreakCalculator();
+
+    private LocalDate today;
+    private LocalDate yesterday;
+    private LocalDate lastWeek;
+    private LocalDate lastMonth;
+
+    private Habit daily;
+    private Habit weekly;
+    private Habit monthly;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        today = LocalDate.of(2024, 5, 15);
+        yesterday = today.minusDays(1);
+        lastWeek = today.minusWeeks(1);
+        lastMonth = today.minusMonths(1);
+
+        daily = habit(Frequency.DAILY);
+        weekly = habit(Frequency.WEEKLY);
+        monthly = habit(Frequency.MONTHLY);
+    }
+
+    @Benchmark
+    public int updateDailyStreak() {
+        streakCalculator.updateDailyStreak(daily, today, yesterday);
+        return daily.getCurrentStreak();
+    }
+
+    @Benchmark
+    public int updateWeeklyStreak() {
+        streakCalculator.updateWeeklyStreak(weekly, today, lastWeek);
+        return weekly.getCurrentStreak();
+    }
+
+    @Benchmark
+    public int updateMonthlyStreak() {
+        streakCalculator.updateMonthlyStreak(monthly, today, lastMonth);
+        return monthly.getCurrentStreak();
+    }
+
+    private static Habit habit(Frequency frequency) {
+        return Habit.builder()
+                .id(1L)
+                .name("Read")
+                .frequency(frequency)
+                .targetCount(1)
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.habittracker.habit_tracker.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+
+/**
+ * Cachés Caffeine acotadas (tamaño/peso y TTL) con estadísticas,
+ * que Actuator publica como métricas cache.gets / cache.puts / cache.evictions.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheSpecProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheSpecProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+
+        // Cachés no declaradas: también acotadas
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(properties.getDefaultMaximumSize())
+                .expireAfterWrite(properties.getDefaultExpireAfterWrite())
+                .recordStats());
+
+        properties.getSpecs().forEach((name, spec) ->
+                cacheManager.registerCustomCache(name, buildCache(spec).build()));
+
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> buildCache(CacheSpecProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+
+        if (spec.getMaximumWeight() != null) {
+            builder.maximumWeight(spec.getMaximumWeight())
+                    .weigher((key, value) -> value instanceof Collection<?> collection
+                            ? Math.max(1, collection.size())
+                            : 1);
+        } else if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return builder;
+    }
+}
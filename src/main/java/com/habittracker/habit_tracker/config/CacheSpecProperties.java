@@ -0,0 +1,39 @@
+package com.habittracker.habit_tracker.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuración de cada caché (app.cache.specs.&lt;nombre&gt;.*) en application.properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheSpecProperties {
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    private long defaultMaximumSize = 1000;
+
+    private Duration defaultExpireAfterWrite = Duration.ofMinutes(10);
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        // Número máximo de entradas (excluyente con maximumWeight)
+        private Long maximumSize;
+
+        // Peso máximo total: las colecciones pesan su tamaño, el resto 1
+        private Long maximumWeight;
+
+        private Duration expireAfterWrite;
+
+        private Duration expireAfterAccess;
+    }
+}
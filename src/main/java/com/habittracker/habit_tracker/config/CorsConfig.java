@@ -20,6 +20,7 @@ public class CorsConfig {
                         .allowedOrigins("http://localhost:3000")  // React frontend
                         .allowedMethods("GET", "POST", "PUT", "DELETE")
                         .allowedHeaders("*")
+                        .exposedHeaders("X-Next-Cursor", "ETag")
                         .allowCredentials(true);
             }
         };
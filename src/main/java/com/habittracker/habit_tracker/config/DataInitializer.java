@@ -3,6 +3,8 @@ package com.habittracker.habit_tracker.config;
 import com.habittracker.habit_tracker.model.User;
 import com.habittracker.habit_tracker.model.enums.Role;
 import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.CustomUserDetailsService;
+import com.habittracker.habit_tracker.security.TokenRevocationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -16,6 +18,8 @@ public class DataInitializer implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     @Override
     public void run(String... args) {
@@ -25,9 +29,15 @@ public class DataInitializer implements CommandLineRunner {
         if (existingAdmin.isPresent()) {
 
             User admin = existingAdmin.get();
+            boolean roleChanged = admin.getRole() != Role.ROLE_ADMIN;
             admin.setPassword(passwordEncoder.encode("admin123"));
             admin.setRole(Role.ROLE_ADMIN);
             userRepository.save(admin);
+            userDetailsService.evictUser(admin.getUsername());
+            if (roleChanged) {
+                // Los tokens stateless llevan el rol anterior en sus claims
+                tokenRevocationRegistry.revokeTokensFor(admin.getUsername());
+            }
             log.info("✅ Admin user updated: username=admin, password=admin123");
         } else {
             // Si no existe, CREAR
@@ -0,0 +1,41 @@
+package com.habittracker.habit_tracker.config;
+
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+/**
+ * IP real del cliente detrás del proxy: X-Forwarded-For solo se acepta si la conexión viene
+ * de un proxy de confianza (server.tomcat.remoteip.internal-proxies). A partir de aquí
+ * request.getRemoteAddr() es la del cliente, que es la que usa RateLimitFilter.
+ */
+@Configuration
+public class ForwardedHeadersConfig {
+
+    @Bean
+    public FilterRegistrationBean<RemoteIpFilter> remoteIpFilter(ServerProperties serverProperties) {
+        ServerProperties.Tomcat.Remoteip remoteIp = serverProperties.getTomcat().getRemoteip();
+
+        // Cabeceras sin configurar → las de Tomcat (X-Forwarded-For / X-Forwarded-Proto)
+        RemoteIpFilter filter = new RemoteIpFilter();
+        filter.setInternalProxies(remoteIp.getInternalProxies());
+        if (StringUtils.hasText(remoteIp.getRemoteIpHeader())) {
+            filter.setRemoteIpHeader(remoteIp.getRemoteIpHeader());
+        }
+        if (StringUtils.hasText(remoteIp.getProtocolHeader())) {
+            filter.setProtocolHeader(remoteIp.getProtocolHeader());
+        }
+        if (StringUtils.hasText(remoteIp.getTrustedProxies())) {
+            filter.setTrustedProxies(remoteIp.getTrustedProxies());
+        }
+
+        // Antes de la cadena de seguridad (y de RateLimitFilter)
+        FilterRegistrationBean<RemoteIpFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
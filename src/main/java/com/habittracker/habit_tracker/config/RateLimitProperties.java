@@ -0,0 +1,52 @@
+package com.habittracker.habit_tracker.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Límites por grupo de rutas (app.rate-limit.groups.&lt;nombre&gt;.*) en application.properties.
+ * Cada cliente tiene un bucket de {@code capacity} peticiones que se rellena entero en {@code refillPeriod}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Buckets en memoria como máximo; los clientes inactivos se descartan antes
+    private long maxClients = 100_000;
+
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // El orden importa: gana el primer grupo cuyo patrón coincide
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    public enum KeyType {
+        // IP del cliente (request.getRemoteAddr(), tras resolver X-Forwarded-For en ForwardedHeadersConfig)
+        IP,
+        // Usuario del JWT; sin token válido se usa la IP
+        USER
+    }
+
+    @Getter
+    @Setter
+    public static class Group {
+
+        // Patrones de ruta (estilo /api/habits/**)
+        private List<String> paths = new ArrayList<>();
+
+        private KeyType key = KeyType.IP;
+
+        private int capacity = 60;
+
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+}
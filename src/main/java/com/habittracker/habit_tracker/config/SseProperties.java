@@ -0,0 +1,43 @@
+package com.habittracker.habit_tracker.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Canal SSE de GET /api/habits/stream (app.sse.* en application.properties).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.sse")
+public class SseProperties {
+
+    // Conexiones abiertas en total; por encima se responde 503
+    private int maxConnections = 10_000;
+
+    // Conexiones por usuario; una nueva cierra la más antigua
+    private int maxConnectionsPerUser = 5;
+
+    // Eventos pendientes por conexión (ya agrupados por hábito); si se supera el cliente recibe "resync"
+    private int maxPendingEvents = 100;
+
+    // Cada cuánto se vacían los buffers: los cambios dentro de la ventana salen como uno
+    private Duration flushInterval = Duration.ofMillis(500);
+
+    // Comentario enviado a las conexiones sin tráfico para que proxies y balanceadores no las corten
+    private Duration heartbeatInterval = Duration.ofSeconds(20);
+
+    // Duración máxima de una conexión; el cliente (EventSource) reconecta solo
+    private Duration timeout = Duration.ofMinutes(30);
+
+    // Hilos que escriben en los sockets; un cliente lento ocupa uno como mucho
+    private int senderThreads = 4;
+
+    // Un envío que tarda más se da por atascado: la conexión se descarta y su hilo se repone con otro
+    private Duration sendTimeout = Duration.ofSeconds(5);
+
+    // Tope de hilos contando los repuestos; los atascados se liberan cuando el contenedor corta la escritura
+    private int maxSenderThreads = 32;
+}
@@ -13,9 +13,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -29,19 +31,39 @@ public class AdminController {
 
     private final AdminService adminService;
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     @Operation(summary = "Get all users",
-            description = "Retrieve the complete list of registered users (ADMIN only)")
+            description = "Retrieve registered users ordered by id, one page at a time (ADMIN only). " +
+                    "Pass the X-Next-Cursor response header as 'after' to get the next page.")
     @ApiResponses({
             @ApiResponse(responseCode = "200",
                     description = "User list retrieved successfully",
                     content = @Content(schema = @Schema(implementation = UserResponse.class))),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid page size",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "403",
                     description = "Access denied - ADMIN role required",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping("/users")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        return ResponseEntity.ok(adminService.getAllUsers());
+    public ResponseEntity<List<UserResponse>> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<UserResponse> users = adminService.getAllUsers(after, limit);
+        return withNextCursor(users, limit, users.isEmpty() ? null : users.get(users.size() - 1).getId());
+    }
+
+    @Operation(summary = "Export all users",
+            description = "Stream every user as newline-delimited JSON (ADMIN only)")
+    @GetMapping(value = "/users/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(adminService::exportUsers);
     }
 
     @Operation(summary = "Delete user",
@@ -63,18 +85,34 @@ public class AdminController {
     }
 
     @Operation(summary = "Get all habits",
-            description = "Retrieve all habits from all users in the system (ADMIN only)")
+            description = "Retrieve habits from all users ordered by id, one page at a time (ADMIN only). " +
+                    "Pass the X-Next-Cursor response header as 'after' to get the next page.")
     @ApiResponses({
             @ApiResponse(responseCode = "200",
                     description = "All habits retrieved successfully",
                     content = @Content(schema = @Schema(implementation = HabitResponse.class))),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid page size",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "403",
                     description = "Access denied - ADMIN role required",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping("/habits")
-    public ResponseEntity<List<HabitResponse>> getAllHabits() {
-        return ResponseEntity.ok(adminService.getAllHabits());
+    public ResponseEntity<List<HabitResponse>> getAllHabits(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<HabitResponse> habits = adminService.getAllHabits(after, limit);
+        return withNextCursor(habits, limit, habits.isEmpty() ? null : habits.get(habits.size() - 1).getId());
+    }
+
+    @Operation(summary = "Export all habits",
+            description = "Stream every habit as newline-delimited JSON (ADMIN only)")
+    @GetMapping(value = "/habits/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportHabits() {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(adminService::exportHabits);
     }
 
     @Operation(summary = "Get global statistics",
@@ -91,4 +129,13 @@ public class AdminController {
     public ResponseEntity<AdminStatsResponse> getStats() {
         return ResponseEntity.ok(adminService.getStats());
     }
+
+    // Página llena → puede haber más: se devuelve el último id como cursor
+    private static <T> ResponseEntity<List<T>> withNextCursor(List<T> page, int limit, Long lastId) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == limit && lastId != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(lastId));
+        }
+        return response.body(page);
+    }
 }
\ No newline at end of file
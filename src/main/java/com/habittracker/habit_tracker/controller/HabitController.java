@@ -1,12 +1,19 @@
 package com.habittracker.habit_tracker.controller;
 
+import com.habittracker.habit_tracker.dto.request.BulkCompleteRequest;
 import com.habittracker.habit_tracker.dto.request.HabitRequest;
+import com.habittracker.habit_tracker.dto.response.BulkCompletionResult;
 import com.habittracker.habit_tracker.dto.response.ErrorResponse;
+import com.habittracker.habit_tracker.dto.response.HabitChangesResponse;
 import com.habittracker.habit_tracker.dto.response.HabitResponse;
 import com.habittracker.habit_tracker.dto.response.HabitStatsResponse;
 import com.habittracker.habit_tracker.dto.response.RankingEntry;
 import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.security.JwtAuthenticationFilter;
 import com.habittracker.habit_tracker.service.HabitService;
+import com.habittracker.habit_tracker.service.HabitStreamHub;
+import com.habittracker.habit_tracker.service.HabitVersions;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,13 +23,19 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @Tag(name = "Habits", description = "Habit management endpoints (authentication required)")
 @RestController
@@ -33,6 +46,8 @@ import java.util.List;
 public class HabitController {
 
     private final HabitService habitService;
+    private final HabitVersions habitVersions;
+    private final HabitStreamHub habitStreamHub;
 
     @Operation(summary = "Get all habits",
             description = "Retrieve all habits belonging to the authenticated user")
@@ -40,14 +55,42 @@ public class HabitController {
             @ApiResponse(responseCode = "200",
                     description = "List of habits retrieved successfully",
                     content = @Content(schema = @Schema(implementation = HabitResponse.class))),
+            @ApiResponse(responseCode = "304",
+                    description = "Not modified - the If-None-Match ETag is still current"),
             @ApiResponse(responseCode = "401",
                     description = "Unauthorized - invalid or missing token",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping
-    public ResponseEntity<List<HabitResponse>> getAllHabits(Authentication authentication) {
+    public ResponseEntity<List<HabitResponse>> getAllHabits(Authentication authentication, WebRequest request) {
+        String eTag = habitVersions.habitsETag(authentication.getName());
+        // If-None-Match coincide: 304 sin llamar al servicio ni serializar
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(habitService.getAllUserHabits(authentication.getName()));
+    }
+
+    @Operation(summary = "Get habit changes since a sync token",
+            description = "A page of habits created, updated or completed and ids deleted after the token returned "
+                    + "by the previous call. Without 'since' starts a full sync. While 'hasMore' is true, call again "
+                    + "with 'nextToken'. A habit changed again shows up again.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200",
+                    description = "Changes retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = HabitChangesResponse.class))),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid sync token or page size",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<HabitChangesResponse> getChanges(@RequestParam(required = false) String since,
+                                                           @RequestParam(defaultValue = "500") int limit,
+                                                           Authentication authentication) {
         return ResponseEntity.ok(
-                habitService.getAllUserHabits(authentication.getName())
+                habitService.getChanges(since, limit, authentication.getName())
         );
     }
 
@@ -151,21 +194,75 @@ public class HabitController {
         );
     }
 
+    @Operation(summary = "Complete several habits",
+            description = "Mark a list of habits as completed today in a single request. " +
+                    "Each habit gets its own result (COMPLETED, ALREADY_COMPLETED, TARGET_REACHED or NOT_FOUND).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200",
+                    description = "Per-habit completion results",
+                    content = @Content(schema = @Schema(implementation = BulkCompletionResult.class))),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid list of habit ids",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping("/complete")
+    public ResponseEntity<List<BulkCompletionResult>> completeHabits(
+            @Valid @RequestBody BulkCompleteRequest request,
+            Authentication authentication) {
+        return ResponseEntity.ok(
+                habitService.completeHabits(request.getHabitIds(), authentication.getName())
+        );
+    }
+
+    @Operation(summary = "Get completion history",
+            description = "Retrieve the dates a habit was completed, newest first. Defaults to the last 90 days; at most 366 days.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200",
+                    description = "Completion history retrieved successfully"),
+            @ApiResponse(responseCode = "400",
+                    description = "'from' after 'to' or range longer than 366 days",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "403",
+                    description = "You do not have permission to access this habit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Habit not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/{id}/completions")
+    public ResponseEntity<List<LocalDate>> getCompletionHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(90);
+        return ResponseEntity.ok(
+                habitService.getCompletionHistory(id, start, end, authentication.getName())
+        );
+    }
+
     @Operation(summary = "Get personal habit statistics",
             description = "Retrieve statistics related to the authenticated user's habits")
     @ApiResponses({
             @ApiResponse(responseCode = "200",
                     description = "Statistics retrieved successfully",
                     content = @Content(schema = @Schema(implementation = HabitStatsResponse.class))),
+            @ApiResponse(responseCode = "304",
+                    description = "Not modified - the If-None-Match ETag is still current"),
             @ApiResponse(responseCode = "401",
                     description = "Unauthorized - invalid or missing token",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping("/stats")
-    public ResponseEntity<HabitStatsResponse> getUserStats(Authentication authentication) {
-        return ResponseEntity.ok(
-                habitService.getUserStats(authentication.getName())
-        );
+    public ResponseEntity<HabitStatsResponse> getUserStats(Authentication authentication, WebRequest request) {
+        String eTag = habitVersions.statsETag(authentication.getName(), LocalDate.now());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(habitService.getUserStats(authentication.getName()));
     }
 
     @Operation(
@@ -191,5 +288,30 @@ public class HabitController {
         return ResponseEntity.ok(rankings);
     }
 
-
-}
\ No newline at end of file
+    @Operation(summary = "Stream habit and ranking updates",
+            description = "Server-Sent Events. 'habit' events carry the latest change of each of the user's habits "
+                    + "(type, habitId, habit); 'ranking' events carry the full top of each requested frequency, "
+                    + "first on connect and then whenever it changes. Changes are grouped every few hundred ms. "
+                    + "'resync' means events were dropped: reload with /changes and /rankings. "
+                    + "Idle connections receive a comment as heartbeat. The stream ends when the token "
+                    + "expires or is revoked.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200",
+                    description = "Event stream opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+            @ApiResponse(responseCode = "401",
+                    description = "Unauthorized - invalid or missing token",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "503",
+                    description = "Too many open streams - retry after the Retry-After seconds",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Set<Frequency> rankings,
+                             @RequestAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE) Claims claims,
+                             Authentication authentication) {
+        // El stream se cierra cuando el token caduca o se revoca
+        return habitStreamHub.subscribe(authentication.getName(), rankings != null ? rankings : Set.of(),
+                claims.getIssuedAt(), claims.getExpiration());
+    }
+}
@@ -21,6 +21,7 @@ public class HabitMapper {
                 .currentStreak(habit.getCurrentStreak())
                 .longestStreak(habit.getLongestStreak())
                 .lastCompleted(habit.getLastCompleted())
+                // getId() sobre el proxy LAZY no lo inicializa: no provoca SELECT a users
                 .userId(habit.getUser().getId())
                 .build();
     }
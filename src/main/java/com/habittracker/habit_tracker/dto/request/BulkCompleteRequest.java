@@ -0,0 +1,20 @@
+package com.habittracker.habit_tracker.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCompleteRequest {
+
+    @NotEmpty(message = "At least one habit id is required")
+    @Size(max = 50, message = "Cannot complete more than 50 habits at once")
+    private List<@NotNull(message = "Habit id cannot be null") Long> habitIds;
+}
@@ -0,0 +1,25 @@
+package com.habittracker.habit_tracker.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resultado de completar un hábito dentro de POST /api/habits/complete.
+ * habit solo viene informado cuando status = COMPLETED.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkCompletionResult {
+
+    public enum Status {
+        COMPLETED,
+        ALREADY_COMPLETED,
+        TARGET_REACHED,
+        NOT_FOUND
+    }
+
+    private Long habitId;
+    private Status status;
+    private String message;
+    private HabitResponse habit;
+}
@@ -0,0 +1,18 @@
+package com.habittracker.habit_tracker.dto.response;
+
+import com.habittracker.habit_tracker.event.HabitChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento "habit" del canal SSE: último cambio de un hábito del usuario.
+ */
+@Getter
+@AllArgsConstructor
+public class HabitChangeNotification {
+    private HabitChangedEvent.Type type;
+    private Long habitId;
+
+    // Estado tras el cambio (null si DELETED)
+    private HabitResponse habit;
+}
@@ -0,0 +1,20 @@
+package com.habittracker.habit_tracker.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Respuesta de GET /api/habits/changes: una página de hábitos creados o modificados, ids borrados
+ * y el cursor que el cliente debe mandar en la siguiente llamada (since). Con hasMore, pedir ya la siguiente.
+ */
+@Getter
+@AllArgsConstructor
+public class HabitChangesResponse {
+
+    private List<HabitResponse> habits;
+    private List<Long> deletedIds;
+    private String nextToken;
+    private boolean hasMore;
+}
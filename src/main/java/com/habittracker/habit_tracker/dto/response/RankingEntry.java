@@ -1,9 +1,12 @@
 package com.habittracker.habit_tracker.dto.response;
 
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
+// equals por valor: el canal SSE compara tops para no reenviar rankings sin cambios
 @Getter
+@EqualsAndHashCode
 @AllArgsConstructor
 public class RankingEntry {
     private Long habitId;
@@ -13,4 +16,4 @@ public class RankingEntry {
     private Integer currentStreak;
     private Integer longestStreak;
     private String frequency;
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.habittracker.habit_tracker.dto.response;
+
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Evento "ranking" del canal SSE: top completo de una frecuencia cuando cambia.
+ */
+@Getter
+@AllArgsConstructor
+public class RankingUpdate {
+    private Frequency frequency;
+    private List<RankingEntry> top;
+}
@@ -0,0 +1,30 @@
+package com.habittracker.habit_tracker.event;
+
+import com.habittracker.habit_tracker.dto.response.HabitResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Publicado por HabitService en cada escritura (y por StreakExpiryJob). Los listeners
+ * (@TransactionalEventListener) lo reciben después del commit.
+ */
+@Getter
+@AllArgsConstructor
+public class HabitChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        COMPLETED,
+        // Racha puesta a 0 por StreakExpiryJob
+        EXPIRED,
+        DELETED
+    }
+
+    private final Type type;
+    private final String username;
+    private final Long habitId;
+
+    // Estado del hábito tras el cambio (null si DELETED)
+    private final HabitResponse habit;
+}
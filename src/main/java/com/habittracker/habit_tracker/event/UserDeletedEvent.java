@@ -0,0 +1,15 @@
+package com.habittracker.habit_tracker.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Publicado por AdminService al borrar un usuario (y sus hábitos en cascada).
+ */
+@Getter
+@AllArgsConstructor
+public class UserDeletedEvent {
+
+    private final Long userId;
+    private final String username;
+}
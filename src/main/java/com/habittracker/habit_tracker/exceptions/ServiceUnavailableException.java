@@ -0,0 +1,16 @@
+package com.habittracker.habit_tracker.exceptions;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    // Segundos que el cliente debería esperar antes de reintentar (cabecera Retry-After)
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
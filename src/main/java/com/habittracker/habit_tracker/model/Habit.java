@@ -3,11 +3,22 @@ package com.habittracker.habit_tracker.model;
 import com.habittracker.habit_tracker.model.enums.Frequency;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "habits")
+// Los hábitos borrados (tombstones) solo se leen desde HabitRepository.findChangesAfter
+@SQLRestriction("deleted_at IS NULL")
+// El UPDATE solo lleva las columnas cambiadas: editar nombre o frecuencia no reescribe las rachas
+// que fijan los UPDATE en bloque de HabitRepository (completeIfDue, resetBrokenStreaks)
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,6 +37,7 @@ public class Habit {
     private String description;
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     @Column(nullable = false)
     private Frequency frequency;
 
@@ -42,6 +54,20 @@ public class Habit {
 
     private LocalDate lastCompleted;
 
+    // Fecha del último cambio (informativa). Los UPDATE en bloque de HabitRepository la fijan a mano
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Número de cambio del usuario en la última escritura: /api/habits/changes pagina por (changeSeq, id)
+    @Column(name = "change_seq", nullable = false)
+    @Builder.Default
+    private long changeSeq = 0;
+
+    // Borrado lógico
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -0,0 +1,50 @@
+package com.habittracker.habit_tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDate;
+
+/**
+ * Registro append-only de cada vez que se completa un hábito.
+ * El id no es generado, así que los INSERT se pueden agrupar en batch.
+ */
+@Entity
+@Table(name = "habit_completions")
+@Getter
+@NoArgsConstructor
+public class HabitCompletion implements Persistable<HabitCompletionId> {
+
+    @EmbeddedId
+    private HabitCompletionId id;
+
+    @MapsId("habitId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "habit_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Habit habit;
+
+    // Evita el SELECT previo de save(): el registro siempre es nuevo
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean isNew = true;
+
+    public HabitCompletion(Habit habit, LocalDate completedOn) {
+        this.id = new HabitCompletionId(habit.getId(), completedOn);
+        this.habit = habit;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.habittracker.habit_tracker.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * PK compuesta (habit_id, completed_on): sirve a la vez de índice para las
+ * consultas de historial y evita completar dos veces el mismo día.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class HabitCompletionId implements Serializable {
+
+    @Column(name = "habit_id")
+    private Long habitId;
+
+    @Column(name = "completed_on")
+    private LocalDate completedOn;
+}
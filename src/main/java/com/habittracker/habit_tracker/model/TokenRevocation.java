@@ -0,0 +1,25 @@
+package com.habittracker.habit_tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Revocación de los tokens de un usuario (modo stateless): los emitidos hasta revokedBefore no valen.
+ */
+@Entity
+@Table(name = "token_revocations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevocation {
+
+    @Id
+    @Column(nullable = false)
+    private String username;
+
+    // Epoch ms, como el iat de los tokens
+    @Column(name = "revoked_before", nullable = false)
+    private long revokedBefore;
+}
@@ -3,6 +3,8 @@ package com.habittracker.habit_tracker.model;
 import com.habittracker.habit_tracker.model.enums.Role;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,8 +29,13 @@ public class User {
     private String password;
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     private Role role;
 
+    // Último número de cambio de sus hábitos (/api/habits/changes); solo lo escribe UserRepository.nextHabitChangeSeq
+    @Column(name = "habit_change_seq", nullable = false, insertable = false, updatable = false)
+    private long habitChangeSeq;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Habit> habits = new ArrayList<>();
@@ -0,0 +1,42 @@
+package com.habittracker.habit_tracker.repository;
+
+import com.habittracker.habit_tracker.model.HabitCompletion;
+import com.habittracker.habit_tracker.model.HabitCompletionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HabitCompletionRepository extends JpaRepository<HabitCompletion, HabitCompletionId> {
+
+    // Completados de un hábito desde una fecha (semana / mes actual)
+    @Query("SELECT COUNT(c) FROM HabitCompletion c " +
+            "WHERE c.id.habitId = :habitId AND c.id.completedOn >= :from")
+    long countSince(@Param("habitId") Long habitId, @Param("from") LocalDate from);
+
+    // Igual que countSince pero para varios hábitos a la vez: filas [habitId, count]
+    @Query("SELECT c.id.habitId, COUNT(c) FROM HabitCompletion c " +
+            "WHERE c.id.habitId IN :habitIds AND c.id.completedOn >= :from " +
+            "GROUP BY c.id.habitId")
+    List<Object[]> countSinceByHabit(@Param("habitIds") Collection<Long> habitIds,
+                                     @Param("from") LocalDate from);
+
+    // Al borrar el hábito (queda solo el tombstone, sin historial)
+    @Modifying
+    @Query("DELETE FROM HabitCompletion c WHERE c.id.habitId = :habitId")
+    int deleteByHabitId(@Param("habitId") Long habitId);
+
+    // Historial en un rango: solo lee la PK (habit_id, completed_on)
+    @Query("SELECT c.id.completedOn FROM HabitCompletion c " +
+            "WHERE c.id.habitId = :habitId AND c.id.completedOn BETWEEN :from AND :to " +
+            "ORDER BY c.id.completedOn DESC")
+    List<LocalDate> findCompletionDates(@Param("habitId") Long habitId,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to);
+}
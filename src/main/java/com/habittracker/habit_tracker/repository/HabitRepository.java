@@ -2,25 +2,195 @@ package com.habittracker.habit_tracker.repository;
 
 import com.habittracker.habit_tracker.model.Habit;
 import com.habittracker.habit_tracker.model.enums.Frequency;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface HabitRepository extends JpaRepository<Habit, Long> {
 
+    // Inicio del periodo actual y del anterior según la frecuencia (DAILY: hoy / ayer)
+    String PERIOD_START = "CASE h.frequency " +
+            "WHEN com.habittracker.habit_tracker.model.enums.Frequency.WEEKLY THEN :weekStart " +
+            "WHEN com.habittracker.habit_tracker.model.enums.Frequency.MONTHLY THEN :monthStart " +
+            "ELSE :today END";
+    String PREVIOUS_PERIOD_START = "CASE h.frequency " +
+            "WHEN com.habittracker.habit_tracker.model.enums.Frequency.WEEKLY THEN :previousWeekStart " +
+            "WHEN com.habittracker.habit_tracker.model.enums.Frequency.MONTHLY THEN :previousMonthStart " +
+            "ELSE :yesterday END";
+    // Mismas reglas que StreakCalculator: mismo periodo → igual, periodo anterior → +1, si no → 1
+    String NEW_STREAK = "CASE " +
+            "WHEN h.lastCompleted >= " + PERIOD_START + " THEN h.currentStreak " +
+            "WHEN h.lastCompleted >= " + PREVIOUS_PERIOD_START + " THEN h.currentStreak + 1 " +
+            "ELSE 1 END";
+    // Completado: rachas y fecha calculadas desde la fila. lastCompleted va después de las rachas:
+    // MySQL aplica las asignaciones en orden y las anteriores leen la fecha vieja
+    String COMPLETE = "h.longestStreak = greatest(h.longestStreak, " + NEW_STREAK + "), " +
+            "h.currentStreak = " + NEW_STREAK + ", " +
+            "h.lastCompleted = :today, " +
+            "h.updatedAt = :now, " +
+            "h.changeSeq = :changeSeq ";
+    // Se puede completar: no borrado, no completado hoy y objetivo del periodo (WEEKLY / MONTHLY) sin alcanzar
+    String DUE = "h.deletedAt IS NULL " +
+            "AND (h.lastCompleted IS NULL OR h.lastCompleted < :today) " +
+            "AND (h.frequency = com.habittracker.habit_tracker.model.enums.Frequency.DAILY " +
+            "OR (SELECT COUNT(c) FROM HabitCompletion c " +
+            "WHERE c.id.habitId = h.id AND c.id.completedOn >= " + PERIOD_START + ") < h.targetCount)";
+    // Racha rota: sin completar en el periodo actual ni en el anterior (la próxima vez empezaría en 1)
+    String STREAK_BROKEN = "h.currentStreak > 0 " +
+            "AND (h.lastCompleted IS NULL OR h.lastCompleted < " + PREVIOUS_PERIOD_START + ")";
 
     List<Habit> findByUserId(Long userId);
 
     List<Habit> findByUserUsername(String username);
-    // Obtener top hábitos por frecuencia ordenados por mejor racha
-    @Query("SELECT h FROM Habit h WHERE h.frequency = :frequency ORDER BY h.longestStreak DESC")
+
+    // Hábito por id solo si es del usuario (un SELECT, sin cargar el User)
+    Optional<Habit> findByIdAndUserId(Long id, Long userId);
+
+    // Borrado lógico en una sentencia; devuelve 0 si no existe, ya estaba borrado o es de otro usuario
+    @Modifying
+    @Query("UPDATE Habit h SET h.deletedAt = :now, h.updatedAt = :now, h.changeSeq = :changeSeq " +
+            "WHERE h.id = :id AND h.user.id = :userId AND h.deletedAt IS NULL")
+    int softDeleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId,
+                                @Param("now") LocalDateTime now, @Param("changeSeq") long changeSeq);
+
+    // Borrado físico de todos los hábitos del usuario, tombstones incluidos (al borrar el usuario)
+    @Modifying
+    @Query(value = "DELETE FROM habits WHERE user_id = :userId", nativeQuery = true)
+    int hardDeleteByUserId(@Param("userId") Long userId);
+
+    // Página (keyset por change_seq, id) de hábitos del usuario cambiados después del cursor, también
+    // los borrados: nativa para saltarse @SQLRestriction
+    @Query(value = "SELECT * FROM habits WHERE user_id = :userId " +
+            "AND (change_seq > :afterSeq OR (change_seq = :afterSeq AND id > :afterId)) " +
+            "ORDER BY change_seq, id",
+            nativeQuery = true)
+    List<Habit> findChangesAfter(@Param("userId") Long userId, @Param("afterSeq") long afterSeq,
+                                 @Param("afterId") long afterId, Pageable pageable);
+
+    // Hábitos del usuario entre los ids pedidos (completado en bloque)
+    List<Habit> findByIdInAndUserId(Collection<Long> ids, Long userId);
+
+    // Obtener top hábitos por frecuencia ordenados por mejor racha (con el usuario ya cargado)
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT h FROM Habit h WHERE h.frequency = :frequency ORDER BY h.longestStreak DESC, h.id ASC")
     List<Habit> findTopByFrequency(@Param("frequency") Frequency frequency, Pageable pageable);
 
+    // Paginación por cursor (keyset) para el listado de admin
+    List<Habit> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Export: se lee con cursor en bloques de fetch size, sin materializar la tabla
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Habit> streamAllByOrderByIdAsc();
+
+    // Estadísticas del usuario en una sola pasada (sin GROUP BY siempre devuelve una fila)
+    @Query("SELECT COUNT(h) AS totalHabits, " +
+            "COALESCE(SUM(CASE WHEN h.lastCompleted = :today THEN 1 ELSE 0 END), 0) AS completedToday, " +
+            "COALESCE(SUM(h.currentStreak), 0) AS totalCurrentStreakSum, " +
+            "COALESCE(MAX(h.longestStreak), 0) AS bestStreak " +
+            "FROM Habit h WHERE h.user.id = :userId")
+    HabitStatsView getStatsByUserId(@Param("userId") Long userId, @Param("today") LocalDate today);
+
+    /**
+     * Completa el hábito en una sola sentencia, sin leerlo antes: racha, récord y fecha se calculan
+     * en la BD a partir de los valores de la fila. El WHERE (no completado hoy y objetivo del periodo
+     * no alcanzado) se evalúa con la fila bloqueada, así que de dos peticiones simultáneas solo una
+     * la actualiza. Devuelve 0 si no es del usuario, no existe o no se puede completar.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Habit h SET " + COMPLETE +
+            "WHERE h.id = :habitId AND h.user.id = :userId AND " + DUE)
+    int completeIfDue(@Param("habitId") Long habitId, @Param("userId") Long userId, @Param("now") LocalDateTime now,
+                      @Param("changeSeq") long changeSeq, @Param("today") LocalDate today, @Param("yesterday") LocalDate yesterday,
+                      @Param("weekStart") LocalDate weekStart, @Param("previousWeekStart") LocalDate previousWeekStart,
+                      @Param("monthStart") LocalDate monthStart, @Param("previousMonthStart") LocalDate previousMonthStart);
+
+    default int completeIfDue(Long habitId, Long userId, long changeSeq, LocalDate today) {
+        LocalDate weekStart = today.with(DayOfWeek.MONDAY);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        return completeIfDue(habitId, userId, LocalDateTime.now(), changeSeq, today, today.minusDays(1),
+                weekStart, weekStart.minusWeeks(1), monthStart, monthStart.minusMonths(1));
+    }
+
+    /**
+     * completeIfDue para varios hábitos del usuario en una sola sentencia (completado en bloque).
+     * El WHERE se evalúa fila a fila: los que ya no se pueden completar se quedan como estaban.
+     * Los completados son los que quedan con el changeSeq de la llamada.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Habit h SET " + COMPLETE +
+            "WHERE h.id IN :habitIds AND h.user.id = :userId AND " + DUE)
+    int completeAllIfDue(@Param("habitIds") Collection<Long> habitIds, @Param("userId") Long userId,
+                         @Param("now") LocalDateTime now, @Param("changeSeq") long changeSeq,
+                         @Param("today") LocalDate today, @Param("yesterday") LocalDate yesterday,
+                         @Param("weekStart") LocalDate weekStart, @Param("previousWeekStart") LocalDate previousWeekStart,
+                         @Param("monthStart") LocalDate monthStart, @Param("previousMonthStart") LocalDate previousMonthStart);
+
+    default int completeAllIfDue(Collection<Long> habitIds, Long userId, long changeSeq, LocalDate today) {
+        LocalDate weekStart = today.with(DayOfWeek.MONDAY);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        return completeAllIfDue(habitIds, userId, LocalDateTime.now(), changeSeq, today, today.minusDays(1),
+                weekStart, weekStart.minusWeeks(1), monthStart, monthStart.minusMonths(1));
+    }
+
+    // Siguiente lote (keyset por id) de hábitos con la racha rota; solo ids, memoria acotada
+    @Query("SELECT h.id FROM Habit h WHERE h.id > :afterId AND " + STREAK_BROKEN + " ORDER BY h.id")
+    List<Long> findBrokenStreakIds(@Param("afterId") Long afterId, @Param("yesterday") LocalDate yesterday,
+                                   @Param("previousWeekStart") LocalDate previousWeekStart,
+                                   @Param("previousMonthStart") LocalDate previousMonthStart,
+                                   Pageable pageable);
+
+    default List<Long> findBrokenStreakIds(Long afterId, LocalDate today, int limit) {
+        LocalDate weekStart = today.with(DayOfWeek.MONDAY);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        return findBrokenStreakIds(afterId, today.minusDays(1), weekStart.minusWeeks(1),
+                monthStart.minusMonths(1), PageRequest.of(0, limit));
+    }
+
+    /**
+     * Pone a 0 las rachas rotas del lote. La condición se vuelve a evaluar con la fila bloqueada:
+     * un hábito completado entre la lectura de ids y este UPDATE no se toca. Cada hábito toma el número
+     * de cambio actual de su usuario: antes hay que llamar a UserRepository.incrementHabitChangeSeqForHabits.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Habit h SET h.currentStreak = 0, h.updatedAt = :now, " +
+            "h.changeSeq = (SELECT u.habitChangeSeq FROM User u WHERE u.id = h.user.id) " +
+            "WHERE h.id IN :ids AND h.deletedAt IS NULL AND " + STREAK_BROKEN)
+    int resetBrokenStreaks(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now,
+                           @Param("yesterday") LocalDate yesterday,
+                           @Param("previousWeekStart") LocalDate previousWeekStart,
+                           @Param("previousMonthStart") LocalDate previousMonthStart);
+
+    default int resetBrokenStreaks(Collection<Long> ids, LocalDate today) {
+        LocalDate weekStart = today.with(DayOfWeek.MONDAY);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        return resetBrokenStreaks(ids, LocalDateTime.now(), today.minusDays(1), weekStart.minusWeeks(1),
+                monthStart.minusMonths(1));
+    }
+
+    // Hábitos por id con el usuario ya cargado (eventos del job de rachas)
+    @EntityGraph(attributePaths = "user")
+    List<Habit> findWithUserByIdIn(Collection<Long> ids);
+
     // Contar hábitos por frecuencia
     long countByFrequency(Frequency frequency);
 }
\ No newline at end of file
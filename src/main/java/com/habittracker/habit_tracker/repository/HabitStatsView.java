@@ -0,0 +1,16 @@
+package com.habittracker.habit_tracker.repository;
+
+/**
+ * Agregados de los hábitos de un usuario, calculados en una sola consulta.
+ * Number porque el tipo de SUM/MAX depende del dialecto.
+ */
+public interface HabitStatsView {
+
+    Number getTotalHabits();
+
+    Number getCompletedToday();
+
+    Number getTotalCurrentStreakSum();
+
+    Number getBestStreak();
+}
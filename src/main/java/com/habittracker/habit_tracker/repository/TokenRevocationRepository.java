@@ -0,0 +1,41 @@
+package com.habittracker.habit_tracker.repository;
+
+import com.habittracker.habit_tracker.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Escrituras en transacción propia: TokenRevocationRegistry también revoca desde código que corre
+ * tras el commit, donde la transacción original ya no escribe.
+ */
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+
+    // Sube la marca si la fila existe; nunca la retrocede. 0 si no existe (o ya era posterior)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE TokenRevocation r SET r.revokedBefore = :revokedBefore " +
+            "WHERE r.username = :username AND r.revokedBefore < :revokedBefore")
+    int raiseRevokedBefore(@Param("username") String username, @Param("revokedBefore") long revokedBefore);
+
+    // Falla con clave duplicada si otra instancia la insertó antes
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "INSERT INTO token_revocations (username, revoked_before) VALUES (:username, :revokedBefore)",
+            nativeQuery = true)
+    int insert(@Param("username") String username, @Param("revokedBefore") long revokedBefore);
+
+    List<TokenRevocation> findByRevokedBeforeGreaterThan(long since);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedBefore <= :cutoff")
+    int deleteExpired(@Param("cutoff") long cutoff);
+}
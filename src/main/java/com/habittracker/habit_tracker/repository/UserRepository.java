@@ -1,10 +1,20 @@
 package com.habittracker.habit_tracker.repository;
 
 import com.habittracker.habit_tracker.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -12,4 +22,36 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    // Paginación por cursor (keyset) para el listado de admin
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<User> streamAllByOrderByIdAsc();
+
+    @Modifying
+    @Query("UPDATE User u SET u.habitChangeSeq = u.habitChangeSeq + 1 WHERE u.id = :userId")
+    int incrementHabitChangeSeq(@Param("userId") Long userId);
+
+    // Dueños de los hábitos de un lote del job de rachas, todos en una sentencia
+    @Modifying
+    @Query("UPDATE User u SET u.habitChangeSeq = u.habitChangeSeq + 1 " +
+            "WHERE u.id IN (SELECT h.user.id FROM Habit h WHERE h.id IN :habitIds)")
+    int incrementHabitChangeSeqForHabits(@Param("habitIds") Collection<Long> habitIds);
+
+    @Query("SELECT u.habitChangeSeq FROM User u WHERE u.id = :userId")
+    long findHabitChangeSeq(@Param("userId") Long userId);
+
+    /**
+     * Siguiente número de cambio de los hábitos del usuario. El UPDATE bloquea la fila del usuario
+     * hasta el commit: otra escritura suya espera, así que los números quedan en orden de commit
+     * y /api/habits/changes no se salta cambios confirmados tarde. Llamar dentro de la transacción que escribe.
+     */
+    default long nextHabitChangeSeq(Long userId) {
+        incrementHabitChangeSeq(userId);
+        return findHabitChangeSeq(userId);
+    }
 }
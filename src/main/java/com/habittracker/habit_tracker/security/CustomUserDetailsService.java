@@ -1,33 +1,74 @@
 package com.habittracker.habit_tracker.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habittracker.habit_tracker.event.UserDeletedEvent;
 import com.habittracker.habit_tracker.model.User;
 import com.habittracker.habit_tracker.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.Collections;
-
+import java.time.Duration;
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    /**
+     * Caché de principals para no consultar la tabla users en cada request autenticada.
+     * Se invalida con evictUser() cuando un usuario se crea, se borra o cambia de rol.
+     */
+    private final Cache<String, UserPrincipal> userCache;
+
+    public CustomUserDetailsService(
+            UserRepository userRepository,
+            @Value("${security.user-cache.max-size:10000}") long maxSize,
+            @Value("${security.user-cache.ttl:5m}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Mismas etiquetas que las cachés de Spring (cache, cache.manager, name): Prometheus exige claves iguales por métrica
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "userDetails",
+                "cache.manager", "security", "name", "userDetails");
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserPrincipal cached = userCache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities(Collections.singletonList(
-                        new SimpleGrantedAuthority(user.getRole().name())
-                ))
-                .build();
+        UserPrincipal principal = new UserPrincipal(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getRole()
+        );
+
+        userCache.put(username, principal);
+        return principal;
+    }
+
+    public void evictUser(String username) {
+        userCache.invalidate(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        evictUser(event.getUsername());
     }
-}
\ No newline at end of file
+}
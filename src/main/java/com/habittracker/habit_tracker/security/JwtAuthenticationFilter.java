@@ -1,10 +1,13 @@
 package com.habittracker.habit_tracker.security;
 
+import com.habittracker.habit_tracker.model.enums.Role;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,8 +22,18 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Claims del token aceptado, para quien necesite iat / exp (p.ej. el canal SSE)
+    public static final String CLAIMS_ATTRIBUTE = "com.habittracker.habit_tracker.security.JwtAuthenticationFilter.claims";
+
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    /**
+     * true → el principal se construye solo con los claims del token (sin consultar users).
+     */
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(
@@ -31,9 +44,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+            Claims claims = StringUtils.hasText(jwt) ? jwtTokenProvider.getClaims(jwt) : null;
+
+            if (claims != null
+                    && !tokenRevocationRegistry.isRevoked(claims.getSubject(), claims.getIssuedAt())) {
+                UserDetails userDetails = stateless && hasPrincipalClaims(claims)
+                        ? principalFromClaims(claims)
+                        : customUserDetailsService.loadUserByUsername(claims.getSubject());
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -44,6 +61,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                request.setAttribute(CLAIMS_ATTRIBUTE, claims);
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication", e);
@@ -52,6 +70,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private boolean hasPrincipalClaims(Claims claims) {
+        return claims.get(JwtTokenProvider.USER_ID_CLAIM) != null
+                && claims.get(JwtTokenProvider.ROLE_CLAIM) != null;
+    }
+
+    private UserPrincipal principalFromClaims(Claims claims) {
+        return new UserPrincipal(
+                claims.get(JwtTokenProvider.USER_ID_CLAIM, Long.class),
+                claims.getSubject(),
+                null,
+                Role.valueOf(claims.get(JwtTokenProvider.ROLE_CLAIM, String.class))
+        );
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,149 @@
+package com.habittracker.habit_tracker.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habittracker.habit_tracker.config.RateLimitProperties;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting por grupo de rutas (app.rate-limit.*), antes de JwtAuthenticationFilter:
+ * una petición rechazada no llega a cargar el usuario ni a BCrypt.
+ * El 429 se escribe aquí directamente, sin pasar por GlobalExceptionHandler.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY = ("{\"status\":429,\"error\":\"Too Many Requests\","
+            + "\"message\":\"Rate limit exceeded, try again later\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final boolean enabled;
+    private final List<RouteGroup> groups;
+
+    // (grupo, cliente) → bucket; acotado y con expiración por inactividad
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties, JwtTokenProvider jwtTokenProvider) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.groups = properties.getGroups().entrySet().stream()
+                .map(RouteGroup::new)
+                .toList();
+        this.enabled = properties.isEnabled() && !groups.isEmpty();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        RouteGroup group = findGroup(path);
+
+        if (group != null) {
+            String key = group.name + '|' + clientKey(group, request);
+            long now = System.nanoTime();
+            long waitNanos = buckets.get(key, k -> group.newBucket(now)).tryConsume(now);
+
+            if (waitNanos > 0) {
+                rejectRequest(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private RouteGroup findGroup(PathContainer path) {
+        for (RouteGroup group : groups) {
+            if (group.matches(path)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(RouteGroup group, HttpServletRequest request) {
+        if (group.keyType == RateLimitProperties.KeyType.USER) {
+            String bearerToken = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+                // Verificación cacheada en JwtTokenProvider: no repite la firma en cada petición
+                Claims claims = jwtTokenProvider.getClaims(bearerToken.substring(7));
+                if (claims != null) {
+                    return "user:" + claims.getSubject();
+                }
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void rejectRequest(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(TOO_MANY_REQUESTS_BODY.length);
+        response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+    }
+
+    private static class RouteGroup {
+
+        private final String name;
+        private final List<PathPattern> patterns;
+        private final RateLimitProperties.KeyType keyType;
+        private final int capacity;
+        private final long refillPeriodNanos;
+
+        RouteGroup(Map.Entry<String, RateLimitProperties.Group> entry) {
+            RateLimitProperties.Group group = entry.getValue();
+            this.name = entry.getKey();
+            this.patterns = group.getPaths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            this.keyType = group.getKey();
+            this.capacity = group.getCapacity();
+            this.refillPeriodNanos = group.getRefillPeriod().toNanos();
+        }
+
+        boolean matches(PathContainer path) {
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        TokenBucket newBucket(long nowNanos) {
+            return new TokenBucket(capacity, refillPeriodNanos, nowNanos);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.habittracker.habit_tracker.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks, en su forma GCRA: en lugar de contar tokens se guarda
+ * el instante teórico en que el bucket vuelve a estar lleno, en un solo AtomicLong.
+ * Cada petición lo adelanta un intervalo; si queda más de {@code capacity}
+ * intervalos por delante, el bucket está vacío.
+ */
+class TokenBucket {
+
+    // Tiempo que tarda en reponerse un token
+    private final long intervalNanos;
+    // Tiempo que tarda en reponerse el bucket entero
+    private final long periodNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, long periodNanos, long nowNanos) {
+        this.intervalNanos = periodNanos / capacity;
+        this.periodNanos = intervalNanos * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Consume un token. Devuelve 0 si se permitió la petición, o los nanosegundos
+     * que faltan para que haya un token disponible.
+     */
+    long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > periodNanos) {
+                return ahead - periodNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.habittracker.habit_tracker.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habittracker.habit_tracker.event.UserDeletedEvent;
+import com.habittracker.habit_tracker.model.TokenRevocation;
+import com.habittracker.habit_tracker.repository.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Denylist para el modo stateless: guarda, por username, el instante a partir del cual
+ * los tokens emitidos antes dejan de ser válidos. Se consulta en memoria en cada petición;
+ * la tabla token_revocations la conserva tras un reinicio y la comparte entre instancias,
+ * que la releen cada jwt.revocation.refresh-interval-ms (lo que tarda una revocación en verse en las demás).
+ * Las entradas caducan a la vez que el token más largo posible (jwt.expiration).
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final long jwtExpiration;
+    private final Cache<String, Long> revokedBefore;
+
+    public TokenRevocationRegistry(TokenRevocationRepository tokenRevocationRepository,
+                                   @Value("${jwt.expiration}") long jwtExpiration) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.jwtExpiration = jwtExpiration;
+        this.revokedBefore = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpiration))
+                .build();
+    }
+
+    public void revokeTokensFor(String username) {
+        long now = System.currentTimeMillis();
+        revokedBefore.asMap().merge(username, now, Math::max);
+
+        // Alta si no existe: si otra instancia la inserta a la vez, se sube la suya
+        if (tokenRevocationRepository.raiseRevokedBefore(username, now) == 0
+                && !tokenRevocationRepository.existsById(username)) {
+            try {
+                tokenRevocationRepository.insert(username, now);
+            } catch (DataIntegrityViolationException e) {
+                tokenRevocationRepository.raiseRevokedBefore(username, now);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        revokeTokensFor(event.getUsername());
+    }
+
+    public boolean isRevoked(String username, Date issuedAt) {
+        Long revokedAt = revokedBefore.getIfPresent(username);
+        if (revokedAt == null) {
+            return false;
+        }
+        // iat tiene precisión de segundos: un token del mismo segundo se considera revocado
+        return issuedAt == null || issuedAt.getTime() <= revokedAt;
+    }
+
+    // Al arrancar, antes de atender peticiones: las revocaciones que aún afectan a algún token
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:10000}",
+            initialDelayString = "${jwt.revocation.refresh-interval-ms:10000}")
+    public void refresh() {
+        for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedBeforeGreaterThan(
+                System.currentTimeMillis() - jwtExpiration)) {
+            revokedBefore.asMap().merge(revocation.getUsername(), revocation.getRevokedBefore(), Math::max);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = tokenRevocationRepository.deleteExpired(System.currentTimeMillis() - jwtExpiration);
+        if (purged > 0) {
+            log.debug("Purged {} expired token revocations", purged);
+        }
+    }
+}
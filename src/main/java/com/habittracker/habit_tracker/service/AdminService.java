@@ -1,31 +1,55 @@
 package com.habittracker.habit_tracker.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.habittracker.habit_tracker.dto.mapper.HabitMapper;
 import com.habittracker.habit_tracker.dto.mapper.UserMapper;
 import com.habittracker.habit_tracker.dto.response.AdminStatsResponse;
 import com.habittracker.habit_tracker.dto.response.HabitResponse;
 import com.habittracker.habit_tracker.dto.response.UserResponse;
+import com.habittracker.habit_tracker.event.UserDeletedEvent;
+import com.habittracker.habit_tracker.exceptions.BadRequestException;
 import com.habittracker.habit_tracker.exceptions.ResourceNotFoundException;
+import com.habittracker.habit_tracker.model.Habit;
 import com.habittracker.habit_tracker.model.User;
 import com.habittracker.habit_tracker.repository.HabitRepository;
 import com.habittracker.habit_tracker.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "admin.service", description = "Duration of AdminService methods")
 @RequiredArgsConstructor
 public class AdminService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final UserRepository userRepository;
     private final HabitRepository habitRepository;
     private final UserMapper userMapper;
     private final HabitMapper habitMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll()
+    // Página de usuarios con id > afterId (keyset: no usa OFFSET)
+    public List<UserResponse> getAllUsers(Long afterId, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(cursor(afterId), page(limit))
                 .stream()
                 .map(userMapper::toResponse)
                 .collect(Collectors.toList());
@@ -36,16 +60,41 @@ public class AdminService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
+        // Los hábitos borrados lógicamente no entran en el cascade de User.habits: fuera antes por la FK
+        habitRepository.hardDeleteByUserId(userId);
         userRepository.delete(user);
+        // Cachés, rankings, principal y tokens se limpian tras el commit
+        eventPublisher.publishEvent(new UserDeletedEvent(userId, user.getUsername()));
     }
 
-    public List<HabitResponse> getAllHabits() {
-        return habitRepository.findAll()
+    // Página de hábitos con id > afterId (keyset: no usa OFFSET)
+    public List<HabitResponse> getAllHabits(Long afterId, int limit) {
+        return habitRepository.findByIdGreaterThanOrderByIdAsc(cursor(afterId), page(limit))
                 .stream()
                 .map(habitMapper::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Escribe todos los hábitos como NDJSON (un objeto por línea) a medida que se leen.
+     */
+    @Transactional(readOnly = true)
+    public void exportHabits(OutputStream out) throws IOException {
+        try (Stream<Habit> habits = habitRepository.streamAllByOrderByIdAsc()) {
+            writeNdjson(habits, habitMapper::toResponse, out);
+        }
+    }
+
+    /**
+     * Escribe todos los usuarios como NDJSON (un objeto por línea) a medida que se leen.
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream out) throws IOException {
+        try (Stream<User> users = userRepository.streamAllByOrderByIdAsc()) {
+            writeNdjson(users, userMapper::toResponse, out);
+        }
+    }
+
     public AdminStatsResponse getStats() {
 
         long totalUsers = userRepository.count();
@@ -53,4 +102,37 @@ public class AdminService {
 
         return new AdminStatsResponse(totalUsers, totalHabits);
     }
-}
\ No newline at end of file
+
+    private <T> void writeNdjson(Stream<T> rows, Function<T, ?> mapper, OutputStream out) throws IOException {
+        boolean empty = true;
+
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(StreamUtils.nonClosing(out))) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                writer.write(mapper.apply(row));
+                // Sacar la entidad del contexto de persistencia: memoria constante
+                entityManager.detach(row);
+                empty = false;
+            }
+        }
+
+        if (!empty) {
+            out.write('\n');
+        }
+    }
+
+    private static long cursor(Long afterId) {
+        return afterId != null ? afterId : 0L;
+    }
+
+    private static PageRequest page(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(0, limit);
+    }
+}
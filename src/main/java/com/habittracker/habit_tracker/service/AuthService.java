@@ -7,9 +7,10 @@ import com.habittracker.habit_tracker.exceptions.*;
 import com.habittracker.habit_tracker.model.User;
 import com.habittracker.habit_tracker.model.enums.Role;
 import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.CustomUserDetailsService;
 import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import com.habittracker.habit_tracker.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 /**
@@ -20,8 +21,9 @@ import org.springframework.stereotype.Service;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtTokenProvider jwtTokenProvider;
+    private final CustomUserDetailsService userDetailsService;
 
     public void register(RegisterRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -32,23 +34,24 @@ public class AuthService {
 
         User user = User.builder()
                 .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHasher.encode(request.getPassword()))
                 .role(Role.ROLE_USER)
                 .build();
 
         userRepository.save(user);
+        userDetailsService.evictUser(user.getUsername());
     }
 
     public JwtResponse login(LoginRequest request) {
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new UnauthorizedException("Invalid credentials"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPassword())) {
             throw new UnauthorizedException("Invalid credentials");
         }
 
 
-        String token = jwtTokenProvider.generateToken(user.getUsername());
+        String token = jwtTokenProvider.generateToken(user);
 
         return new JwtResponse(
                 token,
@@ -0,0 +1,104 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.dto.response.HabitResponse;
+import com.habittracker.habit_tracker.event.HabitChangedEvent;
+import com.habittracker.habit_tracker.event.UserDeletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene la caché userHabits al día después de cada commit: en lugar de
+ * descartar la lista del usuario, se sustituye / añade / quita el hábito cambiado.
+ * Las estadísticas (userStats) se descartan y se recalculan en la siguiente lectura.
+ * Después se sube la versión del usuario (ETag): nunca se anuncia una versión nueva con datos viejos.
+ * Solo corrige la caché de esta instancia: en las demás la lista se renueva al caducar
+ * (app.cache.specs.userHabits.expire-after-write, corto por eso).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HabitCacheSynchronizer {
+
+    static final String USER_HABITS = "userHabits";
+    static final String USER_STATS = "userStats";
+
+    private final CacheManager cacheManager;
+    private final HabitVersions habitVersions;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHabitChanged(HabitChangedEvent event) {
+        if (event.getType() != HabitChangedEvent.Type.UPDATED) {
+            evictUserStats(event.getUsername());
+        }
+
+        switch (event.getType()) {
+            case CREATED:
+                updateUserHabits(event.getUsername(), habits -> {
+                    List<HabitResponse> updated = new ArrayList<>(habits);
+                    updated.add(event.getHabit());
+                    return updated;
+                });
+                break;
+            case UPDATED:
+            case COMPLETED:
+            case EXPIRED:
+                updateUserHabits(event.getUsername(), habits -> habits.stream()
+                        .map(h -> h.getId().equals(event.getHabitId()) ? event.getHabit() : h)
+                        .collect(Collectors.toList()));
+                break;
+            case DELETED:
+                updateUserHabits(event.getUsername(), habits -> habits.stream()
+                        .filter(h -> !h.getId().equals(event.getHabitId()))
+                        .collect(Collectors.toList()));
+                break;
+        }
+        habitVersions.bump(event.getUsername());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        cache(USER_HABITS).evict(event.getUsername());
+        evictUserStats(event.getUsername());
+        habitVersions.forget(event.getUsername());
+    }
+
+    // Misma clave que HabitService.getUserStats
+    private void evictUserStats(String username) {
+        cache(USER_STATS).evict(username + ":" + LocalDate.now());
+    }
+
+    /**
+     * Cambia la lista cacheada de forma atómica (computeIfPresent) y siempre por una copia:
+     * la lista anterior puede estar serializándose en otra request.
+     */
+    @SuppressWarnings("unchecked")
+    private void updateUserHabits(String username, UnaryOperator<List<HabitResponse>> change) {
+        Cache cache = cache(USER_HABITS);
+
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine).asMap()
+                    .computeIfPresent(username, (key, habits) -> change.apply((List<HabitResponse>) habits));
+        } else {
+            cache.evict(username);
+        }
+        log.debug("userHabits cache updated for user: {}", username);
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + name);
+        }
+        return cache;
+    }
+}
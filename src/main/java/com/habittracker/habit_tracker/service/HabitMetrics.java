@@ -0,0 +1,29 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.event.HabitChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Contador habit.changes{type, frequency} de los cambios ya confirmados
+ * (creados / editados / completados / borrados por frecuencia).
+ */
+@Component
+@RequiredArgsConstructor
+public class HabitMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHabitChanged(HabitChangedEvent event) {
+        // Los borrados no llevan el hábito: no se conoce la frecuencia
+        String frequency = event.getHabit() != null ? event.getHabit().getFrequency().name() : "UNKNOWN";
+
+        meterRegistry.counter("habit.changes",
+                "type", event.getType().name(),
+                "frequency", frequency
+        ).increment();
+    }
+}
@@ -1,29 +1,50 @@
 package com.habittracker.habit_tracker.service;
 
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import com.habittracker.habit_tracker.dto.mapper.HabitMapper;
 import com.habittracker.habit_tracker.dto.request.HabitRequest;
+import com.habittracker.habit_tracker.dto.response.BulkCompletionResult;
+import com.habittracker.habit_tracker.dto.response.HabitChangesResponse;
 import com.habittracker.habit_tracker.dto.response.HabitResponse;
 import com.habittracker.habit_tracker.dto.response.HabitStatsResponse;
 import com.habittracker.habit_tracker.dto.response.RankingEntry;
+import com.habittracker.habit_tracker.event.HabitChangedEvent;
 import com.habittracker.habit_tracker.exceptions.*;
 import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.HabitCompletion;
 import com.habittracker.habit_tracker.model.User;
 import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.repository.HabitCompletionRepository;
 import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.HabitStatsView;
 import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.UserPrincipal;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -31,20 +52,28 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Service
+@Timed(value = "habit.service", description = "Duration of HabitService methods")
 @RequiredArgsConstructor
 public class HabitService {
 
+    public static final int MAX_SYNC_PAGE_SIZE = 1000;
+    // Rango máximo del historial: un año, también bisiesto
+    public static final int MAX_HISTORY_DAYS = 366;
+
     private final HabitRepository habitRepository;
+    private final HabitCompletionRepository habitCompletionRepository;
     private final UserRepository userRepository;
     private final HabitMapper habitMapper;
+    private final RankingBoard rankingBoard;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Cacheable(value = "userHabits", key = "#username")
     @Transactional(readOnly = true)
     public List<HabitResponse> getAllUserHabits(String username) {
         log.debug("Cache MISS - Fetching habits from DB for user: {}", username);
-        User user = findUserByUsername(username);
+        Long userId = findUserIdByUsername(username);
 
-        return habitRepository.findByUserId(user.getId())
+        return habitRepository.findByUserId(userId)
                 .stream()
                 .map(habitMapper::toResponse)
                 .collect(Collectors.toList());
@@ -52,91 +81,142 @@ public class HabitService {
 
     @Transactional(readOnly = true)
     public HabitResponse getHabitById(Long habitId, String username) {
-        Habit habit = findHabitById(habitId);
-        validateOwnership(habit, username);
+        Habit habit = findOwnedHabit(habitId, username);
 
         return habitMapper.toResponse(habit);
     }
 
-    @CacheEvict(value = "userHabits", key = "#username")
     @Transactional
     public HabitResponse createHabit(HabitRequest request, String username) {
-        log.info("Creating habit '{}' for user '{}' - Evicting cache", request.getName(), username);
-        User user = findUserByUsername(username);
+        User user = findUserReference(username);
 
         Habit habit = habitMapper.toEntity(request, user);
+        habit.setChangeSeq(userRepository.nextHabitChangeSeq(user.getId()));
         Habit savedHabit = habitRepository.save(habit);
+        HabitResponse response = habitMapper.toResponse(savedHabit);
+        publishChange(HabitChangedEvent.Type.CREATED, username, response);
 
-        log.info("Habit created successfully with ID: {}", savedHabit.getId());
-        return habitMapper.toResponse(savedHabit);
+        log.debug("Habit {} created for user {}", savedHabit.getId(), username);
+        return response;
     }
 
 
     @Transactional
     public HabitResponse updateHabit(Long habitId, HabitRequest request, String username) {
-        Habit habit = findHabitById(habitId);
-        validateOwnership(habit, username);
+        // Número de cambio antes de leer: bloquea al usuario, así que un completado o el job de rachas
+        // en curso confirma antes y aquí se leen sus rachas, no las de antes
+        long changeSeq = userRepository.nextHabitChangeSeq(findUserIdByUsername(username));
+        Habit habit = findOwnedHabit(habitId, username);
 
         habitMapper.updateEntity(habit, request);
+        habit.setChangeSeq(changeSeq);
         Habit updatedHabit = habitRepository.save(habit);
+        HabitResponse response = habitMapper.toResponse(updatedHabit);
+        publishChange(HabitChangedEvent.Type.UPDATED, username, response);
 
-        return habitMapper.toResponse(updatedHabit);
+        return response;
     }
 
-    @CacheEvict(value = "userHabits", key = "#username")
     @Transactional
     public void deleteHabit(Long habitId, String username) {
-        log.info("Deleting habit {} for user {}", habitId, username);  // ← NUEVO
+        Long userId = findUserIdByUsername(username);
+        long changeSeq = userRepository.nextHabitChangeSeq(userId);
 
-        Habit habit = findHabitById(habitId);
-        validateOwnership(habit, username);
+        // Borrado lógico en un solo UPDATE filtrado por propietario: queda como tombstone para /changes
+        if (habitRepository.softDeleteByIdAndUserId(habitId, userId, LocalDateTime.now(), changeSeq) == 0) {
+            throw notFoundOrForbidden(habitId);
+        }
+        // El historial no se vuelve a leer: solo se conserva la fila del tombstone
+        habitCompletionRepository.deleteByHabitId(habitId);
+        eventPublisher.publishEvent(
+                new HabitChangedEvent(HabitChangedEvent.Type.DELETED, username, habitId, null));
 
-        habitRepository.delete(habit);
+        log.debug("Habit {} deleted for user {}", habitId, username);
+    }
+
+    /**
+     * Una página de cambios después del cursor del cliente (sin cursor: sincronización completa desde
+     * el principio). Se pagina por (changeSeq, id): los números de cambio se asignan en la BD en orden
+     * de commit (UserRepository.nextHabitChangeSeq), así que nada confirmado tarde queda detrás del cursor.
+     * Un hábito que vuelve a cambiar reaparece con su nuevo número; el cliente aplica los cambios por id.
+     */
+    @Transactional(readOnly = true)
+    public HabitChangesResponse getChanges(String since, int limit, String username) {
+        if (limit < 1 || limit > MAX_SYNC_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_SYNC_PAGE_SIZE);
+        }
+        Long userId = findUserIdByUsername(username);
+        boolean fullSync = since == null || since.isBlank();
+        long[] cursor = fullSync ? new long[]{-1L, 0L} : decodeSyncToken(since);
+
+        // Un elemento de más para saber si queda otra página
+        List<Habit> page = habitRepository.findChangesAfter(userId, cursor[0], cursor[1],
+                PageRequest.of(0, limit + 1));
+        boolean hasMore = page.size() > limit;
+        if (hasMore) {
+            page = page.subList(0, limit);
+        }
 
-        log.info("Habit {} deleted successfully", habitId);  // ← NUEVO
+        List<HabitResponse> habits = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        for (Habit habit : page) {
+            if (habit.getDeletedAt() == null) {
+                habits.add(habitMapper.toResponse(habit));
+            } else if (!fullSync) {
+                // En la sincronización completa el cliente no tiene nada que borrar
+                deletedIds.add(habit.getId());
+            }
+        }
+        if (!page.isEmpty()) {
+            Habit last = page.get(page.size() - 1);
+            cursor = new long[]{last.getChangeSeq(), last.getId()};
+        }
+        return new HabitChangesResponse(habits, deletedIds, encodeSyncToken(cursor), hasMore);
     }
 
-    @CacheEvict(value = "userHabits", key = "#username")
-    @Transactional
-    public HabitResponse completeHabit(Long habitId, String username) {
-        log.info("Attempting to complete habit {} for user {}", habitId, username);  // ← NUEVO
+    private static String encodeSyncToken(long[] cursor) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((cursor[0] + ":" + cursor[1]).getBytes(StandardCharsets.UTF_8));
+    }
 
+    // Cursor "changeSeq:id"
+    private static long[] decodeSyncToken(String token) {
         try {
-            Habit habit = findHabitById(habitId);
-            validateOwnership(habit, username);
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid sync token");
+            }
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid sync token");
+        }
+    }
 
+    @Transactional
+    public HabitResponse completeHabit(Long habitId, String username) {
+        try {
+            Long userId = findUserIdByUsername(username);
             LocalDate today = LocalDate.now();
-            LocalDate lastCompleted = habit.getLastCompleted();
+            long changeSeq = userRepository.nextHabitChangeSeq(userId);
 
-            // Validar que no se haya completado hoy
-            if (today.equals(lastCompleted)) {
-                log.warn("Habit {} already completed today by user {}", habitId, username);  // ← NUEVO
-                throw new BadRequestException("Habit already completed today");
+            // UPDATE condicional: con dos peticiones a la vez solo una pasa el "no completado hoy"
+            if (habitRepository.completeIfDue(habitId, userId, changeSeq, today) == 0) {
+                rejectCompletion(habitId, username, today);
             }
 
-            // Actualizar según frecuencia
-            switch (habit.getFrequency()) {
-                case DAILY:
-                    updateDailyStreak(habit, today, lastCompleted);
-                    break;
-                case WEEKLY:
-                    updateWeeklyStreak(habit, today, lastCompleted);
-                    break;
-                case MONTHLY:
-                    updateMonthlyStreak(habit, today, lastCompleted);
-                    break;
-            }
-
-            habit.setLastCompleted(today);
-            Habit updatedHabit = habitRepository.save(habit);
+            Habit updatedHabit = findOwnedHabit(habitId, username);
+            habitCompletionRepository.save(new HabitCompletion(updatedHabit, today));
+            HabitResponse response = habitMapper.toResponse(updatedHabit);
+            publishChange(HabitChangedEvent.Type.COMPLETED, username, response);
 
-            log.info("Habit {} completed successfully. New streak: {}, Longest: {}",
-                    habitId, updatedHabit.getCurrentStreak(), updatedHabit.getLongestStreak());  // ← NUEVO
+            log.debug("Habit {} completed by {}. Streak: {}, longest: {}",
+                    habitId, username, updatedHabit.getCurrentStreak(), updatedHabit.getLongestStreak());
 
-            return habitMapper.toResponse(updatedHabit);
+            return response;
 
         } catch (BadRequestException e) {
-            log.warn("Failed to complete habit {}: {}", habitId, e.getMessage());  // ← NUEVO
+            // Error del cliente (ya completado, objetivo alcanzado): no merece WARN
+            log.debug("Habit {} not completed: {}", habitId, e.getMessage());
             throw e;
         } catch (Exception e) {
             log.error("Unexpected error completing habit {} for user {}: {}", habitId, username, e.getMessage(), e);  // ← NUEVO
@@ -144,61 +224,92 @@ public class HabitService {
         }
     }
 
-    // Lógica DAILY
-    private void updateDailyStreak(Habit habit, LocalDate today, LocalDate lastCompleted) {
-        if (lastCompleted == null || lastCompleted.isBefore(today.minusDays(1))) {
-            // Se rompió la racha
-            habit.setCurrentStreak(1);
-        } else if (lastCompleted.equals(today.minusDays(1))) {
-            // Continúa la racha
-            habit.setCurrentStreak(habit.getCurrentStreak() + 1);
-        }
+    @Transactional
+    public List<BulkCompletionResult> completeHabits(List<Long> habitIds, String username) {
+        Long userId = findUserIdByUsername(username);
+        LocalDate today = LocalDate.now();
+        Set<Long> requestedIds = new LinkedHashSet<>(habitIds);
+        // Un número de cambio para toda la petición: se confirma junta
+        long changeSeq = userRepository.nextHabitChangeSeq(userId);
 
-        if (habit.getCurrentStreak() > habit.getLongestStreak()) {
-            habit.setLongestStreak(habit.getCurrentStreak());
+        // Una sola consulta, ya filtrada por propietario
+        Map<Long, Habit> ownedHabits = habitRepository.findByIdInAndUserId(requestedIds, userId)
+                .stream()
+                .collect(Collectors.toMap(Habit::getId, Function.identity()));
+        Map<Long, Long> completionsInPeriod = countCompletionsInCurrentPeriod(ownedHabits.values(), today);
+
+        Map<Long, BulkCompletionResult> results = new LinkedHashMap<>();
+        List<Long> dueIds = new ArrayList<>();
+
+        for (Long habitId : requestedIds) {
+            Habit habit = ownedHabits.get(habitId);
+
+            if (habit == null) {
+                results.put(habitId, new BulkCompletionResult(habitId, BulkCompletionResult.Status.NOT_FOUND,
+                        "Habit not found", null));
+            } else if (today.equals(habit.getLastCompleted())) {
+                results.put(habitId, new BulkCompletionResult(habitId, BulkCompletionResult.Status.ALREADY_COMPLETED,
+                        "Habit already completed today", null));
+            } else if (completionsInPeriod.getOrDefault(habitId, 0L) >= habit.getTargetCount()) {
+                results.put(habitId, new BulkCompletionResult(habitId, BulkCompletionResult.Status.TARGET_REACHED,
+                        "Habit target already reached this period", null));
+            } else {
+                dueIds.add(habitId);
+                results.put(habitId, null);  // se rellena tras el UPDATE; mantiene el orden pedido
+            }
         }
-    }
-
-    // Lógica WEEKLY
-    private void updateWeeklyStreak(Habit habit, LocalDate today, LocalDate lastCompleted) {
-        LocalDate startOfThisWeek = today.with(DayOfWeek.MONDAY);
-        LocalDate startOfLastWeek = startOfThisWeek.minusWeeks(1);
 
-        if (lastCompleted == null || lastCompleted.isBefore(startOfLastWeek)) {
-            habit.setCurrentStreak(1);
-        } else if (!lastCompleted.isBefore(startOfThisWeek)) {
-
-        } else if (!lastCompleted.isBefore(startOfLastWeek)) {
-
-            habit.setCurrentStreak(habit.getCurrentStreak() + 1);
+        List<Habit> completedHabits = new ArrayList<>();
+        if (!dueIds.isEmpty()) {
+            // Un solo UPDATE para todos; las rachas se calculan en la BD y se releen en una consulta
+            habitRepository.completeAllIfDue(dueIds, userId, changeSeq, today);
+
+            for (Habit habit : habitRepository.findByIdInAndUserId(dueIds, userId)) {
+                if (habit.getChangeSeq() != changeSeq) {
+                    // El WHERE ya no se cumplía en el UPDATE: otra escritura lo completó antes
+                    results.put(habit.getId(), new BulkCompletionResult(habit.getId(),
+                            BulkCompletionResult.Status.ALREADY_COMPLETED, "Habit already completed today", null));
+                    continue;
+                }
+                completedHabits.add(habit);
+                HabitResponse response = habitMapper.toResponse(habit);
+                results.put(habit.getId(), new BulkCompletionResult(habit.getId(),
+                        BulkCompletionResult.Status.COMPLETED, null, response));
+                publishChange(HabitChangedEvent.Type.COMPLETED, username, response);
+            }
+            // Los INSERT del historial van en batch
+            habitCompletionRepository.saveAll(completedHabits.stream()
+                    .map(habit -> new HabitCompletion(habit, today))
+                    .collect(Collectors.toList()));
         }
 
-        if (habit.getCurrentStreak() > habit.getLongestStreak()) {
-            habit.setLongestStreak(habit.getCurrentStreak());
-        }
+        log.debug("Bulk completion for user {}: {} of {} habits completed",
+                username, completedHabits.size(), requestedIds.size());
+        return new ArrayList<>(results.values());
     }
 
-    // Lógica MONTHLY
-    private void updateMonthlyStreak(Habit habit, LocalDate today, LocalDate lastCompleted) {
-        LocalDate startOfThisMonth = today.withDayOfMonth(1);
-        LocalDate startOfLastMonth = startOfThisMonth.minusMonths(1);
-
-        if (lastCompleted == null || lastCompleted.isBefore(startOfLastMonth)) {
-
-            habit.setCurrentStreak(1);
-        } else if (!lastCompleted.isBefore(startOfThisMonth)) {
-
-        } else if (!lastCompleted.isBefore(startOfLastMonth)) {
+    // Completados en la semana / mes actual de los hábitos WEEKLY y MONTHLY (máx. 2 consultas)
+    private Map<Long, Long> countCompletionsInCurrentPeriod(Collection<Habit> habits, LocalDate today) {
+        Map<Long, Long> counts = new HashMap<>();
+        addCompletionCounts(counts, habits, Frequency.WEEKLY, today.with(DayOfWeek.MONDAY));
+        addCompletionCounts(counts, habits, Frequency.MONTHLY, today.withDayOfMonth(1));
+        return counts;
+    }
 
-            habit.setCurrentStreak(habit.getCurrentStreak() + 1);
-        }
+    private void addCompletionCounts(Map<Long, Long> counts, Collection<Habit> habits,
+                                     Frequency frequency, LocalDate from) {
+        List<Long> ids = habits.stream()
+                .filter(h -> h.getFrequency() == frequency)
+                .map(Habit::getId)
+                .collect(Collectors.toList());
 
-        if (habit.getCurrentStreak() > habit.getLongestStreak()) {
-            habit.setLongestStreak(habit.getCurrentStreak());
+        if (!ids.isEmpty()) {
+            for (Object[] row : habitCompletionRepository.countSinceByHabit(ids, from)) {
+                counts.put((Long) row[0], (Long) row[1]);
+            }
         }
     }
 
-
     private User findUserByUsername(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -206,63 +317,67 @@ public class HabitService {
                 ));
     }
 
-    private Habit findHabitById(Long habitId) {
-        return habitRepository.findById(habitId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Habit", "id", habitId
-                ));
+    // Cachés y rankings se actualizan al hacer commit (HabitCacheSynchronizer, RankingBoard)
+    private void publishChange(HabitChangedEvent.Type type, String username, HabitResponse habit) {
+        eventPublisher.publishEvent(new HabitChangedEvent(type, username, habit.getId(), habit));
     }
 
-
-    private void validateOwnership(Habit habit, String username) {
-        if (!habit.getUser().getUsername().equals(username)) {
-            throw new ForbiddenException(
-                    "You don't have permission to access this habit"
-            );
-        }
+    /**
+     * Id del usuario autenticado sacado del principal; si no coincide (p.ej. tests
+     * o llamadas internas) se busca en la BD como antes.
+     */
+    private Long findUserIdByUsername(String username) {
+        UserPrincipal principal = currentPrincipal(username);
+        return principal != null ? principal.getId() : findUserByUsername(username).getId();
     }
 
+    // Referencia al usuario sin SELECT cuando el id viene del principal
+    private User findUserReference(String username) {
+        UserPrincipal principal = currentPrincipal(username);
+        return principal != null
+                ? userRepository.getReferenceById(principal.getId())
+                : findUserByUsername(username);
+    }
 
-    private void updateStreak(Habit habit, LocalDate today) {
-        LocalDate lastCompleted = habit.getLastCompleted();
-
-        if (lastCompleted == null) {
-            habit.setCurrentStreak(1);
-        } else if (lastCompleted.equals(today.minusDays(1))) {
-            habit.setCurrentStreak(habit.getCurrentStreak() + 1);
-        } else {
-            // Se rompió la racha → reiniciar
-            habit.setCurrentStreak(1);
+    private UserPrincipal currentPrincipal(String username) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && authentication.getPrincipal() instanceof UserPrincipal principal
+                && principal.getUsername().equals(username)) {
+            return principal;
         }
+        return null;
+    }
 
-        // Actualizar récord
-        if (habit.getCurrentStreak() > habit.getLongestStreak()) {
-            habit.setLongestStreak(habit.getCurrentStreak());
+    // Una consulta por (id, user_id) con el id del principal, sin cargar el User para comparar
+    private Habit findOwnedHabit(Long habitId, String username) {
+        return habitRepository.findByIdAndUserId(habitId, findUserIdByUsername(username))
+                .orElseThrow(() -> notFoundOrForbidden(habitId));
+    }
+
+    // Solo en el caso de error: distingue un hábito inexistente de uno de otro usuario
+    private RuntimeException notFoundOrForbidden(Long habitId) {
+        if (habitRepository.existsById(habitId)) {
+            return new ForbiddenException(
+                    "You don't have permission to access this habit"
+            );
         }
+        return new ResourceNotFoundException(
+                "Habit", "id", habitId
+        );
     }
 
+    // El día forma parte de la clave: completedToday cambia a medianoche sin que haya escrituras
+    @Cacheable(value = "userStats", key = "#username + ':' + T(java.time.LocalDate).now()")
     @Transactional(readOnly = true)
     public HabitStatsResponse getUserStats(String username) {
         log.debug("Calculating stats for user: {}", username);
 
-        List<Habit> habits = habitRepository.findByUserUsername(username);
-
-        long totalHabits = habits.size();
-
         LocalDate today = LocalDate.now();
+        HabitStatsView stats = habitRepository.getStatsByUserId(findUserIdByUsername(username), today);
 
-        long completedToday = habits.stream()
-                .filter(h -> today.equals(h.getLastCompleted()))
-                .count();
-
-        int totalCurrentStreakSum = habits.stream()
-                .mapToInt(Habit::getCurrentStreak)
-                .sum();
-
-        int bestStreak = habits.stream()
-                .mapToInt(Habit::getLongestStreak)
-                .max()
-                .orElse(0);
+        long totalHabits = stats.getTotalHabits().longValue();
+        long completedToday = stats.getCompletedToday().longValue();
 
         double completionRateToday = 0.0;
 
@@ -271,67 +386,75 @@ public class HabitService {
             completionRateToday = Math.round(completionRateToday * 100.0) / 100.0;
         }
 
-        long habitsNeedingAttention = habits.stream()
-                .filter(h -> !today.equals(h.getLastCompleted()))
-                .count();
+        long habitsNeedingAttention = totalHabits - completedToday;
 
         return new HabitStatsResponse(
                 totalHabits,
                 completedToday,
-                totalCurrentStreakSum,
-                bestStreak,
+                stats.getTotalCurrentStreakSum().intValue(),
+                stats.getBestStreak().intValue(),
                 completionRateToday,
                 (int) habitsNeedingAttention
         );
     }
     // Contar cuántas veces se completó en la semana actual
     private long countCompletionsThisWeek(Long habitId) {
-        LocalDate today = LocalDate.now();
-        LocalDate startOfWeek = today.with(DayOfWeek.MONDAY);
+        LocalDate startOfWeek = LocalDate.now().with(DayOfWeek.MONDAY);
+        return habitCompletionRepository.countSince(habitId, startOfWeek);
+    }
 
+    // Contar cuántas veces se completó en el mes actual
+    private long countCompletionsThisMonth(Long habitId) {
+        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
+        return habitCompletionRepository.countSince(habitId, startOfMonth);
+    }
 
-        Habit habit = habitRepository.findById(habitId).orElseThrow();
+    // El UPDATE no tocó la fila: se lee solo para devolver el error adecuado (404, 403 o 400)
+    private void rejectCompletion(Long habitId, String username, LocalDate today) {
+        Habit habit = findOwnedHabit(habitId, username);
 
-        if (habit.getLastCompleted() != null &&
-                !habit.getLastCompleted().isBefore(startOfWeek)) {
-            return 1;
+        if (habit.getLastCompleted() != null && !habit.getLastCompleted().isBefore(today)) {
+            throw new BadRequestException("Habit already completed today");
         }
-        return 0;
+        validateTargetNotReached(habit);
+        throw new BadRequestException("Habit cannot be completed right now");
     }
 
-    // Contar cuántas veces se completó en el mes actual
-    private long countCompletionsThisMonth(Long habitId) {
-        LocalDate today = LocalDate.now();
-        LocalDate startOfMonth = today.withDayOfMonth(1);
+    // WEEKLY / MONTHLY: no se puede completar más veces que targetCount en el periodo
+    private void validateTargetNotReached(Habit habit) {
+        switch (habit.getFrequency()) {
+            case WEEKLY:
+                if (countCompletionsThisWeek(habit.getId()) >= habit.getTargetCount()) {
+                    throw new BadRequestException("Habit target already reached this week");
+                }
+                break;
+            case MONTHLY:
+                if (countCompletionsThisMonth(habit.getId()) >= habit.getTargetCount()) {
+                    throw new BadRequestException("Habit target already reached this month");
+                }
+                break;
+            default:
+                break;
+        }
+    }
 
-        Habit habit = habitRepository.findById(habitId).orElseThrow();
+    @Transactional(readOnly = true)
+    public List<LocalDate> getCompletionHistory(Long habitId, LocalDate from, LocalDate to, String username) {
+        findOwnedHabit(habitId, username);
 
-        if (habit.getLastCompleted() != null &&
-                !habit.getLastCompleted().isBefore(startOfMonth)) {
-            return 1;
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_HISTORY_DAYS) {
+            throw new BadRequestException("History range cannot exceed " + MAX_HISTORY_DAYS + " days");
         }
-        return 0;
+
+        return habitCompletionRepository.findCompletionDates(habitId, from, to);
     }
 
-    @Transactional(readOnly = true)
+    // Top 10 servido desde memoria (RankingBoard), sin consultar la BD
     public List<RankingEntry> getRankingsByFrequency(Frequency frequency) {
-        // Obtener top 10 hábitos de esa frecuencia
-        Pageable topTen = PageRequest.of(0, 10);
-        List<Habit> topHabits = habitRepository.findTopByFrequency(frequency, (topTen));
-
-        // Mapear a RankingEntry
-        return topHabits.stream()
-                .map(habit -> new RankingEntry(
-                        habit.getId(),
-                        habit.getName(),
-                        habit.getUser().getUsername(),
-                        habit.getUser().getId(),
-                        habit.getCurrentStreak(),
-                        habit.getLongestStreak(),
-                        habit.getFrequency().name()
-                ))
-                .collect(Collectors.toList());
+        return rankingBoard.top(frequency);
     }
 
-
 }
\ No newline at end of file
@@ -0,0 +1,416 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.config.SseProperties;
+import com.habittracker.habit_tracker.dto.response.HabitChangeNotification;
+import com.habittracker.habit_tracker.dto.response.RankingEntry;
+import com.habittracker.habit_tracker.dto.response.RankingUpdate;
+import com.habittracker.habit_tracker.event.HabitChangedEvent;
+import com.habittracker.habit_tracker.event.UserDeletedEvent;
+import com.habittracker.habit_tracker.exceptions.ServiceUnavailableException;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.security.TokenRevocationRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conexiones SSE de GET /api/habits/stream: cambios de los hábitos del propio usuario
+ * y de los rankings de las frecuencias suscritas.
+ *
+ * Los eventos (tras el commit) solo se apuntan en el buffer de cada conexión, uno por clave:
+ * varios cambios del mismo hábito dentro de un flushInterval salen como uno, el último.
+ * Cada flushInterval un hilo compara los tops de RankingBoard con lo último enviado y encarga
+ * el envío de los buffers con datos (o de un heartbeat) a un pool pequeño. Cada conexión tiene
+ * como mucho un envío en curso; lo que llega mientras tanto se acumula en su buffer y, si este
+ * se llena, se vacía y el cliente recibe "resync" (debe recargar hábitos y rankings).
+ *
+ * SseEmitter.send es una escritura bloqueante: un envío que pasa de sendTimeout se da por atascado,
+ * la conexión sale del hub y el pool crece un hilo mientras siga atascado (hasta maxSenderThreads),
+ * así el resto de conexiones sigue recibiendo. El emitter lo cierra el propio hilo al desbloquearse:
+ * complete() espera al mismo monitor que el send en curso.
+ * Las conexiones se cierran también cuando el token con que se abrieron caduca o se revoca.
+ *
+ * Métricas: sse.connections, sse.resyncs, sse.stalled y executor.* con name=sse.sender.
+ */
+@Slf4j
+@Component
+public class HabitStreamHub {
+
+    static final String HABIT_EVENT = "habit";
+    static final String RANKING_EVENT = "ranking";
+    static final String RESYNC_EVENT = "resync";
+
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    // Estados de envío de una conexión
+    private static final int IDLE = 0;
+    private static final int SENDING = 1;
+    private static final int STALLED = 2;
+    private static final int CLOSED = 3;
+
+    private final SseProperties properties;
+    private final RankingBoard rankingBoard;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final Counter resyncs;
+    private final Counter stalled;
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, List<Connection>> byUser = new ConcurrentHashMap<>();
+
+    // Último top enviado por frecuencia; solo lo usa el hilo del scheduler
+    private final Map<Frequency, List<RankingEntry>> sentRankings = new EnumMap<>(Frequency.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor sender;
+    private final AtomicInteger stalledSends = new AtomicInteger();
+
+    public HabitStreamHub(SseProperties properties, RankingBoard rankingBoard,
+                          TokenRevocationRegistry tokenRevocationRegistry, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.rankingBoard = rankingBoard;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+
+        CustomizableThreadFactory schedulerThreads = new CustomizableThreadFactory("sse-flush-");
+        schedulerThreads.setDaemon(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(schedulerThreads);
+
+        // Cola sin límite explícito: cada conexión tiene como mucho una tarea encolada o en curso
+        CustomizableThreadFactory senderThreads = new CustomizableThreadFactory("sse-sender-");
+        senderThreads.setDaemon(true);
+        this.sender = new ThreadPoolExecutor(properties.getSenderThreads(), properties.getSenderThreads(),
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), senderThreads);
+
+        Gauge.builder("sse.connections", connections, Set::size)
+                .description("Open SSE connections")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("sse.resyncs")
+                .description("SSE buffers discarded because the client could not keep up")
+                .register(meterRegistry);
+        this.stalled = Counter.builder("sse.stalled")
+                .description("SSE connections dropped because a send exceeded the send timeout")
+                .register(meterRegistry);
+        ExecutorServiceMetrics.monitor(meterRegistry, sender, "sse.sender", List.of());
+
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre una conexión para el usuario. Los tops de las frecuencias pedidas se envían
+     * en el primer flush, así el cliente no necesita consultarlos aparte.
+     * La conexión se cierra cuando caduca ({@code expiresAt}) o se revoca el token ({@code issuedAt}).
+     */
+    public SseEmitter subscribe(String username, Set<Frequency> frequencies, Date issuedAt, Date expiresAt) {
+        return subscribe(username, frequencies, issuedAt, expiresAt,
+                new SseEmitter(properties.getTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(String username, Set<Frequency> frequencies, Date issuedAt, Date expiresAt,
+                         SseEmitter emitter) {
+        if (connections.size() >= properties.getMaxConnections()) {
+            throw new ServiceUnavailableException("Too many open streams", RETRY_AFTER_SECONDS);
+        }
+
+        Connection connection = new Connection(username,
+                frequencies.isEmpty() ? EnumSet.noneOf(Frequency.class) : EnumSet.copyOf(frequencies),
+                issuedAt, expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE, emitter);
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(() -> close(connection));
+        emitter.onError(e -> unregister(connection));
+
+        for (Frequency frequency : connection.frequencies) {
+            connection.offer(rankingKey(frequency),
+                    new Message(RANKING_EVENT, new RankingUpdate(frequency, rankingBoard.top(frequency))));
+        }
+
+        connections.add(connection);
+        List<Connection> own = byUser.compute(username, (key, list) -> {
+            List<Connection> result = list != null ? list : new CopyOnWriteArrayList<>();
+            result.add(connection);
+            return result;
+        });
+        // Clientes que reconectan tras un cambio de red dejan conexiones muertas: se cierra la más antigua
+        if (own.size() > properties.getMaxConnectionsPerUser()) {
+            close(own.get(0));
+        }
+
+        log.debug("SSE connection opened for {} (rankings {})", username, connection.frequencies);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHabitChanged(HabitChangedEvent event) {
+        List<Connection> own = byUser.get(event.getUsername());
+        if (own == null) {
+            return;
+        }
+        Message message = new Message(HABIT_EVENT,
+                new HabitChangeNotification(event.getType(), event.getHabitId(), event.getHabit()));
+        for (Connection connection : own) {
+            connection.offer("habit:" + event.getHabitId(), message);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        List<Connection> own = byUser.get(event.getUsername());
+        if (own != null) {
+            own.forEach(this::close);
+        }
+    }
+
+    int connectionCount() {
+        return connections.size();
+    }
+
+    void flush() {
+        try {
+            offerChangedRankings();
+
+            long now = System.nanoTime();
+            long nowMillis = System.currentTimeMillis();
+            long heartbeatNanos = properties.getHeartbeatInterval().toNanos();
+            long sendTimeoutNanos = properties.getSendTimeout().toNanos();
+            for (Connection connection : connections) {
+                if (nowMillis >= connection.expiresAtMillis
+                        || tokenRevocationRegistry.isRevoked(connection.username, connection.issuedAt)) {
+                    log.debug("SSE connection for {} closed: token expired or revoked", connection.username);
+                    close(connection);
+                } else if (connection.state.get() == SENDING) {
+                    long started = connection.sendStartedNanos;
+                    if (started != 0 && now - started > sendTimeoutNanos) {
+                        markStalled(connection);
+                    }
+                } else if (connection.hasPending() || now - connection.lastSentNanos >= heartbeatNanos) {
+                    dispatch(connection);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría la tarea periódica y dejaría todas las conexiones mudas
+            log.warn("SSE flush failed", e);
+        }
+    }
+
+    private void offerChangedRankings() {
+        Set<Frequency> subscribed = EnumSet.noneOf(Frequency.class);
+        for (Connection connection : connections) {
+            subscribed.addAll(connection.frequencies);
+        }
+        sentRankings.keySet().retainAll(subscribed);
+
+        for (Frequency frequency : subscribed) {
+            List<RankingEntry> top = rankingBoard.top(frequency);
+            if (top.equals(sentRankings.get(frequency))) {
+                continue;
+            }
+            sentRankings.put(frequency, top);
+            Message message = new Message(RANKING_EVENT, new RankingUpdate(frequency, top));
+            for (Connection connection : connections) {
+                if (connection.frequencies.contains(frequency)) {
+                    connection.offer(rankingKey(frequency), message);
+                }
+            }
+        }
+    }
+
+    private void dispatch(Connection connection) {
+        // Envío anterior aún en curso: lo pendiente sigue agrupándose hasta el siguiente flush
+        if (!connection.state.compareAndSet(IDLE, SENDING)) {
+            return;
+        }
+        try {
+            sender.execute(() -> send(connection));
+        } catch (RejectedExecutionException e) {
+            finishSend(connection);
+        }
+    }
+
+    private void send(Connection connection) {
+        connection.sendStartedNanos = System.nanoTime();
+        try {
+            if (connection.closed) {
+                return;
+            }
+            List<Message> messages = connection.drain();
+            if (messages.isEmpty()) {
+                connection.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            for (Message message : messages) {
+                connection.emitter.send(SseEmitter.event().name(message.name).data(message.data));
+            }
+            connection.lastSentNanos = System.nanoTime();
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado o emitter ya completado
+            log.debug("SSE send to {} failed: {}", connection.username, e.getMessage());
+            close(connection);
+        } finally {
+            connection.sendStartedNanos = 0;
+            finishSend(connection);
+        }
+    }
+
+    /**
+     * La conexión deja el hub en el acto y su hilo se repone; el emitter se completa
+     * cuando el envío atascado termine (finishSend), porque complete() esperaría a ese envío.
+     */
+    private void markStalled(Connection connection) {
+        if (!connection.state.compareAndSet(SENDING, STALLED)) {
+            return;
+        }
+        log.debug("SSE send to {} stalled, dropping the connection", connection.username);
+        stalled.increment();
+        connection.closed = true;
+        unregister(connection);
+        resizeSender(stalledSends.incrementAndGet());
+    }
+
+    private void finishSend(Connection connection) {
+        if (connection.state.compareAndSet(STALLED, CLOSED)) {
+            resizeSender(stalledSends.decrementAndGet());
+            complete(connection.emitter);
+            return;
+        }
+        connection.state.set(IDLE);
+        // close() pudo llegar durante el envío: si nadie lo ha completado aún, se completa aquí
+        if (connection.closed && connection.state.compareAndSet(IDLE, CLOSED)) {
+            complete(connection.emitter);
+        }
+    }
+
+    // Un hilo más por cada envío atascado, para que no resten capacidad al resto.
+    // Al reducir, los hilos sobrantes terminan cuando quedan libres
+    private synchronized void resizeSender(int stalledCount) {
+        int size = Math.min(properties.getSenderThreads() + Math.max(stalledCount, 0),
+                Math.max(properties.getMaxSenderThreads(), properties.getSenderThreads()));
+        if (size > sender.getMaximumPoolSize()) {
+            sender.setMaximumPoolSize(size);
+            sender.setCorePoolSize(size);
+        } else if (size < sender.getMaximumPoolSize()) {
+            sender.setCorePoolSize(size);
+            sender.setMaximumPoolSize(size);
+        }
+    }
+
+    // No bloquea: con un envío en curso el emitter lo completa el hilo que envía (finishSend)
+    private void close(Connection connection) {
+        unregister(connection);
+        connection.closed = true;
+        if (connection.state.compareAndSet(IDLE, CLOSED)) {
+            complete(connection.emitter);
+        }
+    }
+
+    private static void complete(SseEmitter emitter) {
+        try {
+            emitter.complete();
+        } catch (IllegalStateException e) {
+            // Ya completado
+        }
+    }
+
+    private void unregister(Connection connection) {
+        if (connections.remove(connection)) {
+            byUser.computeIfPresent(connection.username, (key, list) -> {
+                list.remove(connection);
+                return list.isEmpty() ? null : list;
+            });
+            log.debug("SSE connection closed for {}", connection.username);
+        }
+    }
+
+    private static String rankingKey(Frequency frequency) {
+        return "ranking:" + frequency;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        List.copyOf(connections).forEach(this::close);
+    }
+
+    private static final class Message {
+
+        private final String name;
+        private final Object data;
+
+        Message(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private final class Connection {
+
+        private final String username;
+        private final Set<Frequency> frequencies;
+        private final Date issuedAt;
+        private final long expiresAtMillis;
+        private final SseEmitter emitter;
+
+        // IDLE → SENDING → IDLE; STALLED si el envío pasa de sendTimeout; CLOSED cuando ya se completó
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+        private volatile boolean closed;
+        private volatile long sendStartedNanos;
+        private volatile long lastSentNanos = System.nanoTime();
+
+        // Clave (habit:<id>, ranking:<frecuencia>) → último mensaje; protegido por el monitor de la conexión
+        private final LinkedHashMap<String, Message> pending = new LinkedHashMap<>();
+
+        Connection(String username, Set<Frequency> frequencies, Date issuedAt, long expiresAtMillis,
+                   SseEmitter emitter) {
+            this.username = username;
+            this.frequencies = frequencies;
+            this.issuedAt = issuedAt;
+            this.expiresAtMillis = expiresAtMillis;
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(String key, Message message) {
+            // remove + put: el mensaje pasa al final y se conserva el orden de los cambios
+            pending.remove(key);
+            pending.put(key, message);
+            if (pending.size() > properties.getMaxPendingEvents()) {
+                pending.clear();
+                pending.put(RESYNC_EVENT, new Message(RESYNC_EVENT, ""));
+                resyncs.increment();
+            }
+        }
+
+        synchronized boolean hasPending() {
+            return !pending.isEmpty();
+        }
+
+        synchronized List<Message> drain() {
+            List<Message> messages = new ArrayList<>(pending.values());
+            pending.clear();
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.habittracker.habit_tracker.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión de los hábitos de cada usuario, usada como ETag de GET /api/habits y /api/habits/stats.
+ * Cada versión sale de una secuencia global y lleva el instante de arranque delante, así que
+ * nunca se repite: si la entrada caduca o el proceso se reinicia, el cliente recibe un 200 y no un 304 falso.
+ * La sube HabitCacheSynchronizer después del commit, una vez actualizada la caché userHabits.
+ */
+@Component
+@RequiredArgsConstructor
+public class HabitVersions {
+
+    static final String HABIT_VERSIONS = "habitVersions";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final CacheManager cacheManager;
+
+    public String habitsETag(String username) {
+        return "\"h-" + epoch + "-" + current(username) + "\"";
+    }
+
+    // Las estadísticas dependen del día (completedToday): el ETag cambia a medianoche
+    public String statsETag(String username, LocalDate today) {
+        return "\"s-" + epoch + "-" + current(username) + "-" + today.format(DateTimeFormatter.BASIC_ISO_DATE) + "\"";
+    }
+
+    void bump(String username) {
+        cache().put(username, sequence.incrementAndGet());
+    }
+
+    void forget(String username) {
+        cache().evict(username);
+    }
+
+    private long current(String username) {
+        return cache().get(username, sequence::incrementAndGet);
+    }
+
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(HABIT_VERSIONS);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + HABIT_VERSIONS);
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,254 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.dto.response.HabitResponse;
+import com.habittracker.habit_tracker.dto.response.RankingEntry;
+import com.habittracker.habit_tracker.event.HabitChangedEvent;
+import com.habittracker.habit_tracker.event.UserDeletedEvent;
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Top de hábitos por frecuencia mantenido en memoria.
+ * Se carga al arrancar y se actualiza tras cada commit con los eventos de
+ * HabitService / AdminService, así que leer un ranking no consulta la BD.
+ * Los eventos solo llegan a la instancia que hizo el cambio: cada
+ * app.rankings.reload-interval-ms se recarga todo desde la BD para recoger las de las demás.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RankingBoard {
+
+    static final int TOP_SIZE = 10;
+
+    // Se guardan más entradas de las que se muestran para absorber borrados sin recargar
+    static final int CAPACITY = 50;
+
+    private static final Comparator<RankingEntry> ORDER = Comparator
+            .comparing(RankingEntry::getLongestStreak, Comparator.reverseOrder())
+            .thenComparing(RankingEntry::getHabitId);
+
+    private final HabitRepository habitRepository;
+
+    private final Map<Frequency, Board> boards = new EnumMap<>(Frequency.class);
+
+    {
+        for (Frequency frequency : Frequency.values()) {
+            boards.put(frequency, new Board(frequency));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        for (Frequency frequency : Frequency.values()) {
+            board(frequency).reload();
+        }
+        log.info("Ranking boards loaded");
+    }
+
+    @Scheduled(fixedDelayString = "${app.rankings.reload-interval-ms:60000}",
+            initialDelayString = "${app.rankings.reload-interval-ms:60000}")
+    public void reloadAll() {
+        for (Frequency frequency : Frequency.values()) {
+            board(frequency).reload();
+        }
+        log.debug("Ranking boards reloaded");
+    }
+
+    public List<RankingEntry> top(Frequency frequency) {
+        return board(frequency).top();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHabitChanged(HabitChangedEvent event) {
+        if (event.getType() == HabitChangedEvent.Type.DELETED) {
+            remove(event.getHabitId());
+        } else {
+            update(event.getHabit(), event.getUsername());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        removeUser(event.getUserId());
+    }
+
+    /**
+     * Alta, completado o edición de un hábito. Si cambió de frecuencia sale del resto de tops.
+     */
+    public void update(HabitResponse habit, String username) {
+        RankingEntry entry = new RankingEntry(
+                habit.getId(),
+                habit.getName(),
+                username,
+                habit.getUserId(),
+                habit.getCurrentStreak(),
+                habit.getLongestStreak(),
+                habit.getFrequency().name()
+        );
+
+        for (Frequency frequency : Frequency.values()) {
+            if (frequency == habit.getFrequency()) {
+                board(frequency).offer(entry);
+            } else {
+                board(frequency).remove(habit.getId());
+            }
+        }
+    }
+
+    public void remove(Long habitId) {
+        for (Frequency frequency : Frequency.values()) {
+            board(frequency).remove(habitId);
+        }
+    }
+
+    public void removeUser(Long userId) {
+        for (Frequency frequency : Frequency.values()) {
+            board(frequency).removeUser(userId);
+        }
+    }
+
+    private Board board(Frequency frequency) {
+        return boards.get(frequency);
+    }
+
+    private class Board {
+
+        private final Frequency frequency;
+        private final TreeSet<RankingEntry> entries = new TreeSet<>(ORDER);
+        private final Map<Long, RankingEntry> byHabitId = new HashMap<>();
+
+        // true → entries contiene todos los hábitos de la frecuencia
+        private boolean complete;
+        // true → se borró tanto que el top puede estar incompleto; se recarga en la próxima lectura
+        private volatile boolean stale = true;
+        private volatile List<RankingEntry> snapshot = List.of();
+        // Lock en lugar de synchronized: reload() consulta la BD y un hilo virtual
+        // bloqueado dentro de synchronized inmoviliza su hilo portador (pinning)
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Board(Frequency frequency) {
+            this.frequency = frequency;
+        }
+
+        List<RankingEntry> top() {
+            if (stale) {
+                reload();
+            }
+            return snapshot;
+        }
+
+        void reload() {
+            lock.lock();
+            try {
+                List<Habit> habits = habitRepository.findTopByFrequency(frequency, PageRequest.of(0, CAPACITY));
+
+                entries.clear();
+                byHabitId.clear();
+                for (Habit habit : habits) {
+                    RankingEntry entry = new RankingEntry(
+                            habit.getId(),
+                            habit.getName(),
+                            habit.getUser().getUsername(),
+                            habit.getUser().getId(),
+                            habit.getCurrentStreak(),
+                            habit.getLongestStreak(),
+                            habit.getFrequency().name()
+                    );
+                    entries.add(entry);
+                    byHabitId.put(entry.getHabitId(), entry);
+                }
+
+                complete = habits.size() < CAPACITY;
+                stale = false;
+                publish();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void offer(RankingEntry entry) {
+            lock.lock();
+            try {
+                RankingEntry previous = byHabitId.remove(entry.getHabitId());
+                if (previous != null) {
+                    entries.remove(previous);
+                }
+
+                // Si el top está lleno, solo entra quien supera al último
+                if (entries.size() < CAPACITY || ORDER.compare(entry, entries.last()) < 0) {
+                    entries.add(entry);
+                    byHabitId.put(entry.getHabitId(), entry);
+                } else {
+                    // Queda fuera un hábito de la frecuencia: el tablero ya no los tiene todos
+                    complete = false;
+                }
+
+                while (entries.size() > CAPACITY) {
+                    byHabitId.remove(entries.pollLast().getHabitId());
+                    complete = false;
+                }
+                publish();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(Long habitId) {
+            lock.lock();
+            try {
+                RankingEntry previous = byHabitId.remove(habitId);
+                if (previous != null) {
+                    entries.remove(previous);
+                    afterRemoval();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void removeUser(Long userId) {
+            lock.lock();
+            try {
+                boolean removed = entries.removeIf(entry -> entry.getUserId().equals(userId));
+                if (removed) {
+                    byHabitId.values().removeIf(entry -> entry.getUserId().equals(userId));
+                    afterRemoval();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void afterRemoval() {
+            if (!complete && entries.size() < TOP_SIZE) {
+                stale = true;
+            }
+            publish();
+        }
+
+        private void publish() {
+            snapshot = entries.stream()
+                    .limit(TOP_SIZE)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+    }
+}
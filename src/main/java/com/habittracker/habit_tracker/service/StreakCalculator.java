@@ -0,0 +1,100 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Reglas de racha por frecuencia. Sin estado ni acceso a BD,
+ * así que se puede medir aislado (ver src/jmh).
+ * Completar un hábito aplica estas mismas reglas en SQL (HabitRepository.completeIfDue);
+ * HabitCompletionTest comprueba que ambas coinciden.
+ */
+@Component
+public class StreakCalculator {
+
+    // Actualizar según frecuencia
+    public void applyCompletion(Habit habit, LocalDate today) {
+        LocalDate lastCompleted = habit.getLastCompleted();
+
+        switch (habit.getFrequency()) {
+            case DAILY:
+                updateDailyStreak(habit, today, lastCompleted);
+                break;
+            case WEEKLY:
+                updateWeeklyStreak(habit, today, lastCompleted);
+                break;
+            case MONTHLY:
+                updateMonthlyStreak(habit, today, lastCompleted);
+                break;
+        }
+
+        habit.setLastCompleted(today);
+    }
+
+    // Lógica DAILY
+    public void updateDailyStreak(Habit habit, LocalDate today, LocalDate lastCompleted) {
+        if (lastCompleted == null || lastCompleted.isBefore(today.minusDays(1))) {
+            // Se rompió la racha
+            habit.setCurrentStreak(1);
+        } else if (lastCompleted.equals(today.minusDays(1))) {
+            // Continúa la racha
+            habit.setCurrentStreak(habit.getCurrentStreak() + 1);
+        }
+
+        updateLongestStreak(habit);
+    }
+
+    // Lógica WEEKLY
+    public void updateWeeklyStreak(Habit habit, LocalDate today, LocalDate lastCompleted) {
+        LocalDate startOfThisWeek = today.with(DayOfWeek.MONDAY);
+        LocalDate startOfLastWeek = startOfThisWeek.minusWeeks(1);
+
+        if (lastCompleted == null || lastCompleted.isBefore(startOfLastWeek)) {
+            habit.setCurrentStreak(1);
+        } else if (lastCompleted.isBefore(startOfThisWeek)) {
+            // Completado la semana pasada → continúa
+            habit.setCurrentStreak(habit.getCurrentStreak() + 1);
+        }
+
+        updateLongestStreak(habit);
+    }
+
+    // Lógica MONTHLY
+    public void updateMonthlyStreak(Habit habit, LocalDate today, LocalDate lastCompleted) {
+        LocalDate startOfThisMonth = today.withDayOfMonth(1);
+        LocalDate startOfLastMonth = startOfThisMonth.minusMonths(1);
+
+        if (lastCompleted == null || lastCompleted.isBefore(startOfLastMonth)) {
+            habit.setCurrentStreak(1);
+        } else if (lastCompleted.isBefore(startOfThisMonth)) {
+            // Completado el mes pasado → continúa
+            habit.setCurrentStreak(habit.getCurrentStreak() + 1);
+        }
+
+        updateLongestStreak(habit);
+    }
+
+    /**
+     * Racha rota: ni este periodo ni el anterior completados, así que el próximo completado
+     * la dejaría en 1 (mismas ramas que updateXxxStreak). StreakExpiryJob la aplica en SQL.
+     */
+    public boolean isStreakBroken(Frequency frequency, LocalDate lastCompleted, LocalDate today) {
+        LocalDate startOfPreviousPeriod = switch (frequency) {
+            case DAILY -> today.minusDays(1);
+            case WEEKLY -> today.with(DayOfWeek.MONDAY).minusWeeks(1);
+            case MONTHLY -> today.withDayOfMonth(1).minusMonths(1);
+        };
+        return lastCompleted == null || lastCompleted.isBefore(startOfPreviousPeriod);
+    }
+
+    // Actualizar récord
+    private void updateLongestStreak(Habit habit) {
+        if (habit.getCurrentStreak() > habit.getLongestStreak()) {
+            habit.setLongestStreak(habit.getCurrentStreak());
+        }
+    }
+}
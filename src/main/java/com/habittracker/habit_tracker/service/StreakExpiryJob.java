@@ -0,0 +1,129 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.dto.mapper.HabitMapper;
+import com.habittracker.habit_tracker.event.HabitChangedEvent;
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.JobCheckpoint;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.JobCheckpointRepository;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pone a 0 cada noche las rachas rotas (StreakCalculator.isStreakBroken), que si no seguirían
+ * contando en las estadísticas y los rankings hasta el siguiente completado del hábito.
+ *
+ * Recorre habits por id en lotes (keyset): cada lote es una transacción con un UPDATE en bloque
+ * y el checkpoint del día, así que tras una caída se retoma después del último lote confirmado.
+ * Cada hábito cambiado publica HabitChangedEvent(EXPIRED): cachés, ETag, rankings y SSE
+ * se actualizan tras el commit de su lote, como con cualquier otra escritura.
+ * Con varias instancias, cada lote empieza con la fila del checkpoint bloqueada (SELECT ... FOR UPDATE):
+ * las instancias se turnan lote a lote, cada una sigue donde dejó la otra y ninguna pisa su last_id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StreakExpiryJob {
+
+    static final String JOB_NAME = "streak-expiry";
+
+    private final HabitRepository habitRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final UserRepository userRepository;
+    private final HabitMapper habitMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.streak-expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${app.streak-expiry.cron:0 5 0 * * *}")
+    public void run() {
+        run(LocalDate.now());
+    }
+
+    /**
+     * Ejecución del día {@code today}; si ya terminó no hace nada. Devuelve las rachas puestas a 0
+     * por esta instancia.
+     */
+    public int run(LocalDate today) {
+        createCheckpointIfAbsent(today);
+
+        long start = System.nanoTime();
+        int expired = 0;
+        int chunks = 0;
+        Integer reset;
+        while ((reset = transactionTemplate.execute(status -> expireChunk(today))) != null) {
+            expired += reset;
+            chunks++;
+        }
+
+        // Con otra instancia a la vez, cada una cuenta solo sus lotes
+        log.info("Streak expiry for {} done: {} streaks reset in {} chunks ({} ms)",
+                today, expired, chunks, (System.nanoTime() - start) / 1_000_000);
+        return expired;
+    }
+
+    // Primera ejecución del job: si otra instancia inserta la fila a la vez, gana la suya
+    private void createCheckpointIfAbsent(LocalDate today) {
+        if (checkpointRepository.existsById(JOB_NAME)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.saveAndFlush(
+                    JobCheckpoint.builder().jobName(JOB_NAME).runDate(today).lastId(0L).build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Checkpoint {} created by another instance", JOB_NAME);
+        }
+    }
+
+    /**
+     * Un lote en su transacción, con el checkpoint bloqueado hasta el commit; null cuando el día
+     * ya está terminado o no quedan rachas rotas (y entonces queda terminado).
+     */
+    private Integer expireChunk(LocalDate today) {
+        JobCheckpoint checkpoint = checkpointRepository.findForUpdate(JOB_NAME).orElseThrow();
+        if (!checkpoint.getRunDate().equals(today)) {
+            // Primer lote del día (lo que quedara de otro día ya no vale)
+            checkpoint.setRunDate(today);
+            checkpoint.setLastId(0L);
+            checkpoint.setFinishedAt(null);
+        } else if (checkpoint.getFinishedAt() != null) {
+            return null;
+        }
+
+        List<Long> ids = habitRepository.findBrokenStreakIds(checkpoint.getLastId(), today, chunkSize);
+        if (ids.isEmpty()) {
+            checkpoint.setFinishedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+            return null;
+        }
+
+        // Número de cambio nuevo para los dueños del lote (bloquea sus filas hasta el commit, como cualquier escritura)
+        userRepository.incrementHabitChangeSeqForHabits(ids);
+        int reset = habitRepository.resetBrokenStreaks(ids, today);
+        for (Habit habit : habitRepository.findWithUserByIdIn(ids)) {
+            // Completado entre la lectura de ids y el UPDATE: no se tocó
+            if (habit.getCurrentStreak() == 0) {
+                eventPublisher.publishEvent(new HabitChangedEvent(HabitChangedEvent.Type.EXPIRED,
+                        habit.getUser().getUsername(), habit.getId(), habitMapper.toResponse(habit)));
+            }
+        }
+
+        checkpoint.setLastId(ids.get(ids.size() - 1));
+        checkpointRepository.save(checkpoint);
+        log.debug("Streak expiry chunk up to habit {}: {} reset", checkpoint.getLastId(), reset);
+        return reset;
+    }
+}
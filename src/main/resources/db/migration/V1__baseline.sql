@@ -0,0 +1,27 @@
+-- Esquema inicial, equivalente al que generaba ddl-auto=update antes de Flyway (solo users y habits).
+-- Las bases de datos existentes se marcan con baseline en esta versión sin ejecutarla:
+-- todo lo añadido después va en migraciones nuevas.
+-- Los enums se guardan como VARCHAR: añadir un valor no obliga a un ALTER TABLE.
+
+CREATE TABLE users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role     VARCHAR(20),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE habits (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    name           VARCHAR(100) NOT NULL,
+    description    VARCHAR(500),
+    frequency      VARCHAR(20)  NOT NULL,
+    target_count   INT          NOT NULL,
+    current_streak INT          NOT NULL,
+    longest_streak INT          NOT NULL,
+    last_completed DATE,
+    user_id        BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_habits_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
@@ -0,0 +1,9 @@
+-- Registro append-only de completados (HabitCompletion). No existía con ddl-auto=update,
+-- así que va aparte de V1 para que también se cree en las bases de datos marcadas con baseline
+-- (IF NOT EXISTS: las que arrancaron con ddl-auto=update después de añadirla ya la tienen).
+CREATE TABLE IF NOT EXISTS habit_completions (
+    habit_id     BIGINT NOT NULL,
+    completed_on DATE   NOT NULL,
+    PRIMARY KEY (habit_id, completed_on),
+    CONSTRAINT fk_habit_completions_habit FOREIGN KEY (habit_id) REFERENCES habits (id) ON DELETE CASCADE
+);
@@ -0,0 +1,12 @@
+-- Revocaciones del modo stateless (TokenRevocationRegistry): los tokens del usuario emitidos hasta
+-- revoked_before (epoch ms) dejan de valer. Se guardan para que sobrevivan a un reinicio y las vean
+-- todas las instancias; las filas más viejas que jwt.expiration ya no afectan a ningún token y se purgan.
+-- IF NOT EXISTS, como V2: las bases de datos que arrancaron con ddl-auto=update ya tienen la tabla.
+CREATE TABLE IF NOT EXISTS token_revocations (
+    username       VARCHAR(255) NOT NULL,
+    revoked_before BIGINT       NOT NULL,
+    PRIMARY KEY (username)
+);
+
+-- Recarga periódica y purga: revocaciones posteriores a un instante
+CREATE INDEX idx_token_revocations_revoked_before ON token_revocations (revoked_before);
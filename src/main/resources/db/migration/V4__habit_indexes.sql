@@ -0,0 +1,16 @@
+-- Las bases de datos creadas con ddl-auto=update tienen columnas ENUM nativas de MySQL;
+-- se pasan a VARCHAR como en V1 (en un esquema nuevo no cambia nada).
+ALTER TABLE users MODIFY COLUMN role VARCHAR(20);
+ALTER TABLE habits MODIFY COLUMN frequency VARCHAR(20) NOT NULL;
+
+-- Índices para las consultas de HabitRepository.
+-- users(username) ya es UNIQUE y habit_completions se consulta por su PK (habit_id, completed_on).
+
+-- findByUserId, findByIdInAndUserId y getStatsByUserId: el agregado se resuelve solo con el índice
+CREATE INDEX idx_habits_user_stats ON habits (user_id, last_completed, current_streak, longest_streak);
+
+-- findTopByFrequency (ORDER BY longest_streak DESC, id ASC) y countByFrequency
+CREATE INDEX idx_habits_frequency_streak ON habits (frequency, longest_streak DESC, id);
+
+-- Búsquedas por última fecha de completado (rachas caducadas)
+CREATE INDEX idx_habits_last_completed ON habits (last_completed);
@@ -0,0 +1,18 @@
+-- Sincronización incremental (GET /api/habits/changes):
+-- fecha del último cambio de cada hábito y borrado lógico (el hábito borrado queda como tombstone).
+ALTER TABLE habits ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+ALTER TABLE habits ADD COLUMN deleted_at DATETIME(6) NULL;
+
+-- /changes pagina por un número de cambio por usuario, no por updated_at:
+-- users.habit_change_seq se incrementa dentro de cada transacción que escribe hábitos del usuario
+-- (la fila queda bloqueada hasta el commit, así que los números siguen el orden de commit)
+-- y habits.change_seq guarda el número de su último cambio. No depende del reloj de la aplicación.
+ALTER TABLE users ADD COLUMN habit_change_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE habits ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+-- findChangesAfter: keyset por (change_seq, id) dentro del usuario
+CREATE INDEX idx_habits_user_change ON habits (user_id, change_seq, id);
+
+-- getStatsByUserId filtra ahora deleted_at IS NULL: se añade al índice para que siga sin leer filas
+DROP INDEX idx_habits_user_stats ON habits;
+CREATE INDEX idx_habits_user_stats ON habits (user_id, deleted_at, last_completed, current_streak, longest_streak);
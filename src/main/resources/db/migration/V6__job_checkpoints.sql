@@ -0,0 +1,10 @@
+-- Progreso de los jobs por lotes (StreakExpiryJob): último id procesado del día,
+-- guardado en la misma transacción que cada lote para retomar tras una caída sin repetir trabajo.
+CREATE TABLE job_checkpoints (
+    job_name    VARCHAR(50) NOT NULL,
+    run_date    DATE        NOT NULL,
+    last_id     BIGINT      NOT NULL,
+    finished_at DATETIME(6) NULL,
+    updated_at  DATETIME(6) NOT NULL,
+    PRIMARY KEY (job_name)
+);
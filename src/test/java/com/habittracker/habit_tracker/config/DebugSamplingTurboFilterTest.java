@@ -0,0 +1,45 @@
+package com.habittracker.habit_tracker.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DebugSamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger appLogger = context.getLogger("com.habittracker.habit_tracker.service.HabitService");
+    private final Logger otherLogger = context.getLogger("org.hibernate.SQL");
+
+    private DebugSamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new DebugSamplingTurboFilter();
+        filter.setLoggerPrefix("com.habittracker");
+        filter.setRate(10);
+    }
+
+    @Test
+    void debug_PassesOneInRate() {
+        int passed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.decide(null, appLogger, Level.DEBUG, "msg {}", null, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        assertEquals(10, passed);
+    }
+
+    @Test
+    void infoAndOtherLoggers_AreNotSampled() {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, appLogger, Level.INFO, "msg", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, otherLogger, Level.DEBUG, "msg", null, null));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.habittracker.habit_tracker.controller;
+
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * El actuator (salvo health) es solo para ADMIN en el puerto del API: un usuario normal no lee métricas
+ * ni vacía cachés, y prometheus sin token solo se sirve en el puerto de gestión.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private String token;
+
+    @BeforeAll
+    void createUser() {
+        User user = userRepository.save(User.builder()
+                .username("actuatoruser")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+        token = "Bearer " + jwtTokenProvider.generateToken(user);
+    }
+
+    @Test
+    void actuator_UserRole_Forbidden() throws Exception {
+        mockMvc.perform(delete("/actuator/caches").header("Authorization", token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void prometheus_ApiPortWithoutToken_Forbidden() throws Exception {
+        // Sin puerto de gestión aparte (tests), prometheus no es público en el puerto del API
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,178 @@
+package com.habittracker.habit_tracker.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listados de admin por keyset: recorrer X-Next-Cursor devuelve cada fila una vez y en orden,
+ * y el export NDJSON trae las mismas filas, una por línea.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String adminToken;
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < 5; i++) {
+            User user = userRepository.save(User.builder()
+                    .username("adminpage" + i)
+                    .password("password")
+                    .role(Role.ROLE_USER)
+                    .build());
+            habitRepository.save(Habit.builder()
+                    .name("Admin page " + i)
+                    .frequency(Frequency.DAILY)
+                    .targetCount(1)
+                    .user(user)
+                    .build());
+        }
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        adminToken = "Bearer " + jwtTokenProvider.generateToken(admin);
+    }
+
+    @Test
+    void getAllUsers_CursorWalkReturnsEveryUserOnce() throws Exception {
+        List<Long> expected = userRepository.findAll().stream().map(User::getId).sorted().toList();
+
+        assertEquals(expected, walk("/api/admin/users", 2));
+    }
+
+    @Test
+    void getAllHabits_CursorWalkMatchesExport() throws Exception {
+        List<Long> walked = walk("/api/admin/habits", 3);
+
+        MvcResult started = mockMvc.perform(get("/api/admin/habits/export").header("Authorization", adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Un objeto completo por línea, terminado en salto de línea
+        assertTrue(body.endsWith("\n"));
+        List<Long> exported = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            exported.add(objectMapper.readTree(line).get("id").asLong());
+        }
+        assertEquals(walked, exported);
+    }
+
+    @Test
+    void exportUsers_OneLinePerUserWithoutPassword() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/admin/users/export").header("Authorization", adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(userRepository.count(), lines.length);
+        for (String line : lines) {
+            JsonNode user = objectMapper.readTree(line);
+            assertTrue(user.hasNonNull("username"));
+            assertFalse(user.has("password"));
+        }
+    }
+
+    @Test
+    void pageBoundaries() throws Exception {
+        Long lastId = userRepository.findAll().stream().map(User::getId).max(Long::compare).orElseThrow();
+
+        // Después del último id: página vacía y sin cursor
+        mockMvc.perform(get("/api/admin/users").param("after", lastId.toString())
+                        .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist(AdminController.NEXT_CURSOR_HEADER));
+
+        // Una página llena lleva cursor aunque no quede nada detrás: la siguiente sale vacía (arriba)
+        mockMvc.perform(get("/api/admin/users").param("after", String.valueOf(lastId - 1)).param("limit", "1")
+                        .header("Authorization", adminToken))
+                .andExpect(jsonPath("$[0].id").value(lastId))
+                .andExpect(header().string(AdminController.NEXT_CURSOR_HEADER, lastId.toString()));
+
+        for (String limit : List.of("0", "1001")) {
+            mockMvc.perform(get("/api/admin/users").param("limit", limit).header("Authorization", adminToken))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    // Sigue X-Next-Cursor hasta que falta; solo la última página puede venir incompleta
+    private List<Long> walk(String path, int limit) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            var request = get(path).param("limit", String.valueOf(limit)).header("Authorization", adminToken);
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            cursor = result.getResponse().getHeader(AdminController.NEXT_CURSOR_HEADER);
+
+            if (cursor != null) {
+                assertEquals(limit, page.size());
+                assertEquals(page.get(limit - 1).get("id").asText(), cursor);
+            } else {
+                assertTrue(page.size() < limit);
+            }
+            for (JsonNode row : page) {
+                long id = row.get("id").asLong();
+                assertTrue(ids.isEmpty() || id > ids.get(ids.size() - 1), "ids must be strictly ascending");
+                ids.add(id);
+            }
+        } while (cursor != null);
+
+        return ids;
+    }
+}
@@ -0,0 +1,155 @@
+package com.habittracker.habit_tracker.controller;
+
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.HabitCompletion;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.HabitCompletionRepository;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/habits/complete: un resultado por hábito pedido, en el orden pedido,
+ * y cada hábito completado una sola vez aunque se repita en la lista.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HabitBulkCompletionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private HabitCompletionRepository habitCompletionRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private User otherUser;
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        user = userRepository.save(User.builder()
+                .username("bulkuser")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+        otherUser = userRepository.save(User.builder()
+                .username("bulkother")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+        token = "Bearer " + jwtTokenProvider.generateToken(user);
+    }
+
+    @Test
+    void completeHabits_PartialSuccess_OneResultPerId() throws Exception {
+        LocalDate today = LocalDate.now();
+        Habit due = habitRepository.save(habit(user, Frequency.DAILY, today.minusDays(1), 2));
+        Habit doneToday = habitRepository.save(habit(user, Frequency.DAILY, today, 5));
+        // Objetivo semanal (1) ya cubierto por el historial
+        Habit targetReached = habitRepository.save(habit(user, Frequency.WEEKLY, null, 0));
+        transactionTemplate.executeWithoutResult(status -> habitCompletionRepository.save(
+                new HabitCompletion(habitRepository.getReferenceById(targetReached.getId()), today)));
+        Habit notMine = habitRepository.save(habit(otherUser, Frequency.DAILY, null, 0));
+        long unknownId = notMine.getId() + 1000;
+
+        complete(due.getId(), doneToday.getId(), targetReached.getId(), notMine.getId(), unknownId)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].habitId").value(due.getId()))
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[0].habit.currentStreak").value(3))
+                .andExpect(jsonPath("$[1].status").value("ALREADY_COMPLETED"))
+                .andExpect(jsonPath("$[1].habit").doesNotExist())
+                .andExpect(jsonPath("$[2].status").value("TARGET_REACHED"))
+                .andExpect(jsonPath("$[3].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[4].habitId").value(unknownId))
+                .andExpect(jsonPath("$[4].status").value("NOT_FOUND"));
+
+        // Solo el completado cambia; el hábito de otro usuario no se toca
+        assertEquals(3, habitRepository.findById(due.getId()).orElseThrow().getCurrentStreak());
+        assertEquals(1, habitCompletionRepository.countSince(due.getId(), today));
+        assertEquals(5, habitRepository.findById(doneToday.getId()).orElseThrow().getCurrentStreak());
+        assertEquals(0, habitCompletionRepository.countSince(doneToday.getId(), today));
+        assertNull(habitRepository.findById(notMine.getId()).orElseThrow().getLastCompleted());
+    }
+
+    @Test
+    void completeHabits_DuplicateIds_CompletedOnce() throws Exception {
+        LocalDate today = LocalDate.now();
+        Habit habit = habitRepository.save(habit(user, Frequency.DAILY, today.minusDays(1), 4));
+
+        complete(habit.getId(), habit.getId(), habit.getId())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(jsonPath("$[0].habit.currentStreak").value(5));
+
+        assertEquals(5, habitRepository.findById(habit.getId()).orElseThrow().getCurrentStreak());
+        assertEquals(1, habitCompletionRepository.countSince(habit.getId(), today));
+    }
+
+    @Test
+    void completeHabits_OnlyUnknownIds_AllNotFound() throws Exception {
+        complete(Long.MAX_VALUE - 1, Long.MAX_VALUE)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+    }
+
+    private ResultActions complete(Long... habitIds) throws Exception {
+        StringBuilder ids = new StringBuilder();
+        for (Long id : habitIds) {
+            ids.append(ids.length() == 0 ? "" : ",").append(id);
+        }
+        return mockMvc.perform(post("/api/habits/complete")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"habitIds\":[" + ids + "]}"));
+    }
+
+    private static Habit habit(User owner, Frequency frequency, LocalDate lastCompleted, int currentStreak) {
+        return Habit.builder()
+                .name("Bulk " + frequency)
+                .frequency(frequency)
+                .targetCount(1)
+                .currentStreak(currentStreak)
+                .longestStreak(currentStreak)
+                .lastCompleted(lastCompleted)
+                .user(owner)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.habittracker.habit_tracker.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/habits/changes: sincronización incremental con tombstones de los hábitos borrados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HabitChangesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private String token;
+    private final List<Long> habitIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        User user = userRepository.save(User.builder()
+                .username("syncuser")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+        for (int i = 0; i < 3; i++) {
+            habitIds.add(habitRepository.save(Habit.builder()
+                    .name("Sync " + i)
+                    .frequency(Frequency.DAILY)
+                    .targetCount(1)
+                    .user(user)
+                    .build()).getId());
+        }
+        token = "Bearer " + jwtTokenProvider.generateToken(user);
+    }
+
+    @Test
+    void changes_ReturnUpdatedCreatedAndDeleted() throws Exception {
+        JsonNode full = changes(null);
+        assertEquals(3, full.get("habits").size());
+        assertEquals(0, full.get("deletedIds").size());
+
+        mockMvc.perform(put("/api/habits/" + habitIds.get(0))
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Renamed\",\"frequency\":\"DAILY\",\"targetCount\":1}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/habits/" + habitIds.get(1)).header("Authorization", token))
+                .andExpect(status().is2xxSuccessful());
+
+        // El hábito borrado deja de existir para el resto de endpoints
+        mockMvc.perform(get("/api/habits/" + habitIds.get(1)).header("Authorization", token))
+                .andExpect(status().isNotFound());
+
+        JsonNode delta = changes(full.get("nextToken").asText());
+        List<Long> changedIds = new ArrayList<>();
+        delta.get("habits").forEach(habit -> changedIds.add(habit.get("id").asLong()));
+
+        assertTrue(changedIds.contains(habitIds.get(0)));
+        assertFalse(changedIds.contains(habitIds.get(1)));
+        assertEquals(1, delta.get("deletedIds").size());
+        assertEquals(habitIds.get(1), delta.get("deletedIds").get(0).asLong());
+    }
+
+    @Test
+    void changes_PagesWithCursorUntilNoMore() throws Exception {
+        List<Long> expected = new ArrayList<>();
+        changes(null).get("habits").forEach(habit -> expected.add(habit.get("id").asLong()));
+
+        // De uno en uno: cada página continúa donde acabó la anterior, sin repetir ni saltar
+        List<Long> paged = new ArrayList<>();
+        String since = null;
+        JsonNode page;
+        do {
+            page = changes(since, 1);
+            page.get("habits").forEach(habit -> paged.add(habit.get("id").asLong()));
+            since = page.get("nextToken").asText();
+        } while (page.get("hasMore").asBoolean());
+
+        assertEquals(expected, paged);
+        assertEquals(0, changes(since).get("habits").size());
+    }
+
+    @Test
+    void changes_InvalidToken_Returns400() throws Exception {
+        mockMvc.perform(get("/api/habits/changes").param("since", "not-a-token").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode changes(String since) throws Exception {
+        return changes(since, 500);
+    }
+
+    private JsonNode changes(String since, int limit) throws Exception {
+        var request = get("/api/habits/changes").param("limit", String.valueOf(limit)).header("Authorization", token);
+        if (since != null) {
+            request.param("since", since);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
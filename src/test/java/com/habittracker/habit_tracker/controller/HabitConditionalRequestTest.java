@@ -0,0 +1,99 @@
+package com.habittracker.habit_tracker.controller;
+
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag / If-None-Match en GET /api/habits y /api/habits/stats.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HabitConditionalRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String token;
+
+    @BeforeAll
+    void createUser() {
+        User user = userRepository.save(User.builder()
+                .username("etaguser")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+        token = "Bearer " + jwtTokenProvider.generateToken(user);
+    }
+
+    @Test
+    void getAllHabits_SameETag_Returns304WithoutQueries() throws Exception {
+        String eTag = eTagOf("/api/habits");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/habits").header("Authorization", token).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void mutation_ChangesETags() throws Exception {
+        String habitsETag = eTagOf("/api/habits");
+        String statsETag = eTagOf("/api/habits/stats");
+
+        mockMvc.perform(post("/api/habits")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Read\",\"frequency\":\"DAILY\",\"targetCount\":1}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/habits").header("Authorization", token).header("If-None-Match", habitsETag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/habits/stats").header("Authorization", token).header("If-None-Match", statsETag))
+                .andExpect(status().isOk());
+        assertNotEquals(habitsETag, eTagOf("/api/habits"));
+    }
+
+    private String eTagOf(String url) throws Exception {
+        String eTag = mockMvc.perform(get(url).header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(eTag);
+        return eTag;
+    }
+}
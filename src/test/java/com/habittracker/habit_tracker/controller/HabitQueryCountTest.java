@@ -0,0 +1,225 @@
+package com.habittracker.habit_tracker.controller;
+
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba el número exacto de sentencias SQL por endpoint,
+ * para que no vuelvan a aparecer consultas N+1.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HabitQueryCountTest {
+
+    private static final int USERS = 5;
+    private static final int HABITS_PER_USER = 4;
+    private static final String HABIT_JSON = "{\"name\":\"Counted\",\"frequency\":\"DAILY\",\"targetCount\":1}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User habitOwner;
+    private User habitWriter;
+    private String userToken;
+    private String writerToken;
+    private String adminToken;
+    private Long userHabitId;
+
+    @BeforeAll
+    void seed() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(User.builder()
+                    .username("querycount" + i)
+                    .password("password")
+                    .role(Role.ROLE_USER)
+                    .build()));
+        }
+
+        for (User user : users) {
+            for (int j = 0; j < HABITS_PER_USER; j++) {
+                Habit habit = habitRepository.save(Habit.builder()
+                        .name("Habit " + j)
+                        .frequency(Frequency.values()[j % Frequency.values().length])
+                        .targetCount(1)
+                        .longestStreak(j)
+                        .user(user)
+                        .build());
+                userHabitId = habit.getId();
+            }
+        }
+
+        habitOwner = users.get(USERS - 1);
+        // Las escrituras van con otro usuario: no alteran los totales que comprueban las lecturas
+        habitWriter = userRepository.save(User.builder()
+                .username("querycountwriter")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+        writerToken = "Bearer " + jwtTokenProvider.generateToken(habitWriter);
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        userToken = "Bearer " + jwtTokenProvider.generateToken(users.get(USERS - 1));
+        adminToken = "Bearer " + jwtTokenProvider.generateToken(admin);
+    }
+
+    @Test
+    void getAllHabits_UsesOneStatement() throws Exception {
+        assertEquals(1, countStatements(get("/api/habits").header("Authorization", userToken)));
+    }
+
+    @Test
+    void getHabitById_UsesOneStatement() throws Exception {
+        // findByIdAndUserId con el id del principal: sin cargar el User
+        assertEquals(1, countStatements(get("/api/habits/" + userHabitId).header("Authorization", userToken)));
+    }
+
+    @Test
+    void deleteHabit_UsesFixedStatements() throws Exception {
+        Habit habit = saveHabit("To delete");
+
+        // Número de cambio (UPDATE + SELECT), borrado lógico y borrado del historial: sin leer el hábito ni el User
+        assertEquals(4, countStatements(delete("/api/habits/" + habit.getId()).header("Authorization", writerToken)));
+    }
+
+    @Test
+    void createHabit_UsesFixedStatements() throws Exception {
+        // Número de cambio (UPDATE + SELECT) e INSERT: el User es una referencia, sin SELECT
+        assertEquals(3, countStatements(post("/api/habits")
+                .header("Authorization", writerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(HABIT_JSON)));
+    }
+
+    @Test
+    void updateHabit_UsesFixedStatements() throws Exception {
+        Habit habit = saveHabit("To update");
+
+        // Número de cambio, lectura del hábito y UPDATE solo de las columnas cambiadas
+        assertEquals(4, countStatements(put("/api/habits/" + habit.getId())
+                .header("Authorization", writerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(HABIT_JSON)));
+    }
+
+    @Test
+    void completeHabit_UsesFixedStatements() throws Exception {
+        Habit habit = saveHabit("To complete");
+
+        // Número de cambio, UPDATE condicional, relectura para la respuesta e INSERT en el historial
+        assertEquals(5, countStatements(post("/api/habits/" + habit.getId() + "/complete")
+                .header("Authorization", writerToken)));
+    }
+
+    @Test
+    void completeHabits_StatementsDoNotGrowWithHabits() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(saveHabit("Bulk " + i).getId());
+        }
+
+        // Número de cambio, lectura de los pedidos, un UPDATE, una relectura y el INSERT en batch,
+        // sean cuantos sean (todos DAILY: sin contar completados del periodo)
+        assertEquals(6, countStatements(post("/api/habits/complete")
+                .header("Authorization", writerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"habitIds\":" + ids + "}")));
+    }
+
+    @Test
+    void getChanges_UsesOneStatement() throws Exception {
+        // Una página por keyset (change_seq, id), sin COUNT
+        assertEquals(1, countStatements(get("/api/habits/changes").header("Authorization", userToken)));
+    }
+
+    @Test
+    void getStats_UsesOneStatementThenCache() throws Exception {
+        // Una consulta agregada; la segunda llamada sale de la caché userStats
+        assertEquals(1, countStatements(get("/api/habits/stats").header("Authorization", userToken)));
+        assertEquals(0, countStatements(get("/api/habits/stats").header("Authorization", userToken)));
+
+        mockMvc.perform(get("/api/habits/stats").header("Authorization", userToken))
+                .andExpect(jsonPath("$.totalHabits").value(HABITS_PER_USER))
+                .andExpect(jsonPath("$.completedToday").value(0))
+                .andExpect(jsonPath("$.bestStreak").value(HABITS_PER_USER - 1))
+                .andExpect(jsonPath("$.habitsNeedingAttention").value(HABITS_PER_USER));
+    }
+
+    @Test
+    void getRankings_UsesNoStatements() throws Exception {
+        assertEquals(0, countStatements(get("/api/habits/rankings/DAILY").header("Authorization", userToken)));
+    }
+
+    @Test
+    void adminGetAllHabits_UsesOneStatementRegardlessOfOwners() throws Exception {
+        assertEquals(1, countStatements(get("/api/admin/habits").header("Authorization", adminToken)));
+    }
+
+    @Test
+    void adminGetAllUsers_UsesOneStatement() throws Exception {
+        assertEquals(1, countStatements(get("/api/admin/users").header("Authorization", adminToken)));
+    }
+
+    private Habit saveHabit(String name) {
+        return habitRepository.save(Habit.builder()
+                .name(name)
+                .frequency(Frequency.DAILY)
+                .targetCount(1)
+                .user(habitWriter)
+                .build());
+    }
+
+    private long countStatements(RequestBuilder request) throws Exception {
+        // Calentar la caché de UserDetails para contar solo las consultas del endpoint
+        mockMvc.perform(get("/api/habits/rankings/WEEKLY").header("Authorization", userToken));
+        mockMvc.perform(get("/api/habits/rankings/WEEKLY").header("Authorization", writerToken));
+        mockMvc.perform(get("/api/habits/rankings/WEEKLY").header("Authorization", adminToken));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+
+        return statistics.getPrepareStatementCount();
+    }
+}
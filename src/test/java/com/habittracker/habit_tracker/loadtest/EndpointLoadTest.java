@@ -0,0 +1,243 @@
+package com.habittracker.habit_tracker.loadtest;
+
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import com.habittracker.habit_tracker.service.RankingBoard;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prueba de carga extremo a extremo: arranca la aplicación completa sobre H2,
+ * carga N usuarios con M hábitos y lanza cada endpoint con concurrencia fija.
+ *
+ * No se ejecuta con {@code mvn test}; se lanza con el perfil load-test:
+ * <pre>
+ * mvn -P load-test test -Dloadtest.users=500 -Dloadtest.concurrency=32
+ * </pre>
+ * El informe (p50 / p99 / req/s por endpoint) se escribe en target/load-test-report.txt.
+ *
+ * A diferencia del resto de tests, H2 corre en modo normal: en MODE=MySQL los INSERT
+ * concurrentes sobre columnas AUTO_INCREMENT chocan a veces con la PK (fallo de H2,
+ * no de la aplicación). Solo las migraciones se ejecutan en modo MySQL.
+ */
+@Tag("load")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:habit_tracker_load;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "logging.level.com.habittracker=WARN"
+        })
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointLoadTest {
+
+    @TestConfiguration
+    static class MigrationConfig {
+
+        @Bean
+        FlywayMigrationStrategy mySqlModeMigration() {
+            return flyway -> {
+                JdbcTemplate jdbc = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                jdbc.execute("SET MODE MySQL");
+                flyway.migrate();
+                jdbc.execute("SET MODE REGULAR");
+            };
+        }
+    }
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 100);
+    private static final int HABITS_PER_USER = Integer.getInteger("loadtest.habitsPerUser", 10);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 8);
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 1000);
+    private static final String PASSWORD = "password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RankingBoard rankingBoard;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private List<String> userTokens;
+    private List<List<Long>> userHabitIds;
+    private String adminToken;
+
+    @BeforeAll
+    void seed() {
+        LoadTestDataSeeder seeder = new LoadTestDataSeeder(jdbcTemplate);
+        List<Long> userIds = seeder.seed(USERS, HABITS_PER_USER, passwordEncoder.encode(PASSWORD));
+        Map<Long, List<Long>> habitIds = seeder.habitIdsByUser();
+
+        userTokens = new ArrayList<>(userIds.size());
+        userHabitIds = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            User user = User.builder()
+                    .id(userIds.get(i))
+                    .username(LoadTestDataSeeder.USERNAME_PREFIX + i)
+                    .role(Role.ROLE_USER)
+                    .build();
+            userTokens.add("Bearer " + jwtTokenProvider.generateToken(user));
+            userHabitIds.add(habitIds.get(user.getId()));
+        }
+        adminToken = "Bearer " + jwtTokenProvider.generateToken(userRepository.findByUsername("admin").orElseThrow());
+
+        // El ranking se cargó al arrancar, antes de insertar el dataset
+        rankingBoard.seed();
+    }
+
+    @Test
+    void endpointsUnderLoad() throws Exception {
+        // Calentamiento (JIT, pool de conexiones, cachés) sin medir
+        run("warm-up", REQUESTS, i -> get("/api/habits", userToken(i)));
+
+        LoadReport report = new LoadReport();
+        measure(report, "GET /api/habits", REQUESTS, i -> get("/api/habits", userToken(i)));
+        measure(report, "GET /api/habits/{id}", REQUESTS, i -> get("/api/habits/" + habitId(i, 0), userToken(i)));
+        measure(report, "GET /api/habits/stats", REQUESTS, i -> get("/api/habits/stats", userToken(i)));
+        measure(report, "GET /api/habits/rankings/DAILY", REQUESTS, i -> get("/api/habits/rankings/DAILY", userToken(i)));
+        measure(report, "GET /api/habits/{id}/completions", REQUESTS,
+                i -> get("/api/habits/" + habitId(i, 0) + "/completions", userToken(i)));
+        // Cada hábito solo se puede completar una vez al día
+        measure(report, "POST /api/habits/{id}/complete", Math.min(REQUESTS, USERS * HABITS_PER_USER),
+                i -> post("/api/habits/" + habitId(i, i / USERS) + "/complete", userToken(i), ""));
+        measure(report, "POST /api/habits", REQUESTS, i -> post("/api/habits", userToken(i),
+                "{\"name\":\"Load " + i + "\",\"frequency\":\"DAILY\",\"targetCount\":1}"));
+        // BCrypt domina el login: menos peticiones
+        measure(report, "POST /api/auth/login", Math.max(CONCURRENCY, REQUESTS / 10), i -> post("/api/auth/login", null,
+                "{\"username\":\"" + LoadTestDataSeeder.USERNAME_PREFIX + (i % USERS) + "\",\"password\":\"" + PASSWORD + "\"}"));
+        measure(report, "GET /api/admin/habits", REQUESTS / 10, i -> get("/api/admin/habits?limit=100", adminToken));
+        measure(report, "GET /api/admin/users", REQUESTS / 10, i -> get("/api/admin/users?limit=100", adminToken));
+
+        String text = report.format(String.format("Load test: %d users x %d habits, concurrency %d",
+                USERS, HABITS_PER_USER, CONCURRENCY));
+        System.out.println(text);
+        Files.writeString(Path.of("target", "load-test-report.txt"), text);
+
+        assertEquals(0, report.totalErrors(), "Requests failed under load:\n" + text);
+    }
+
+    private void measure(LoadReport report, String scenario, int requests,
+                         IntFunction<HttpRequest> requestFactory) throws InterruptedException {
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        int errors = run(scenario, requests, i -> requestFactory.apply(i), latencies);
+        report.add(scenario, latencies, errors, System.nanoTime() - start);
+    }
+
+    private void run(String scenario, int requests, IntFunction<HttpRequest> requestFactory) throws InterruptedException {
+        run(scenario, requests, requestFactory, new long[requests]);
+    }
+
+    /**
+     * Reparte las peticiones entre CONCURRENCY hilos; cada hilo envía la siguiente
+     * en cuanto recibe la respuesta anterior (carga cerrada).
+     */
+    private int run(String scenario, int requests, IntFunction<HttpRequest> requestFactory,
+                    long[] latencies) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+
+        for (int t = 0; t < CONCURRENCY; t++) {
+            workers.execute(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    HttpRequest request = requestFactory.apply(i);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies[i] = System.nanoTime() - start;
+                }
+            });
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Scenario did not finish in time: " + scenario);
+        }
+        return errors.get();
+    }
+
+    private String userToken(int i) {
+        return userTokens.get(i % USERS);
+    }
+
+    private Long habitId(int i, int habitIndex) {
+        return userHabitIds.get(i % USERS).get(habitIndex % HABITS_PER_USER);
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", token);
+        }
+        return builder;
+    }
+}
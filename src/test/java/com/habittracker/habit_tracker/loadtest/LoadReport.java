@@ -0,0 +1,63 @@
+package com.habittracker.habit_tracker.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Latencias de un escenario y la tabla final con p50 / p99 / throughput por endpoint.
+ */
+class LoadReport {
+
+    private final List<Row> rows = new ArrayList<>();
+
+    void add(String scenario, long[] latenciesNanos, int errors, long wallNanos) {
+        long[] sorted = latenciesNanos.clone();
+        Arrays.sort(sorted);
+        rows.add(new Row(scenario, sorted.length, errors,
+                percentile(sorted, 50), percentile(sorted, 99), sorted[sorted.length - 1],
+                sorted.length / (wallNanos / 1_000_000_000.0)));
+    }
+
+    int totalErrors() {
+        return rows.stream().mapToInt(Row::getErrors).sum();
+    }
+
+    String format(String header) {
+        StringBuilder sb = new StringBuilder(header).append('\n');
+        sb.append(String.format(Locale.ROOT, "%-32s %8s %7s %10s %10s %10s %10s%n",
+                "scenario", "requests", "errors", "p50 (ms)", "p99 (ms)", "max (ms)", "req/s"));
+        for (Row row : rows) {
+            sb.append(String.format(Locale.ROOT, "%-32s %8d %7d %10.2f %10.2f %10.2f %10.1f%n",
+                    row.getScenario(), row.getRequests(), row.getErrors(),
+                    millis(row.getP50()), millis(row.getP99()), millis(row.getMax()), row.getThroughput()));
+        }
+        return sb.toString();
+    }
+
+    // Nearest-rank
+    private static long percentile(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Row {
+        private final String scenario;
+        private final int requests;
+        private final int errors;
+        private final long p50;
+        private final long p99;
+        private final long max;
+        private final double throughput;
+    }
+}
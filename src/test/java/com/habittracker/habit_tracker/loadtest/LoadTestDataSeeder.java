@@ -0,0 +1,81 @@
+package com.habittracker.habit_tracker.loadtest;
+
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Carga masiva del dataset de carga con JDBC en batch (sin pasar por JPA).
+ * Todos los usuarios comparten el mismo hash BCrypt, calculado una sola vez.
+ */
+class LoadTestDataSeeder {
+
+    static final String USERNAME_PREFIX = "load-user-";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    LoadTestDataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta {@code users} usuarios con {@code habitsPerUser} hábitos cada uno
+     * y devuelve los ids de los usuarios en orden.
+     */
+    List<Long> seed(int users, int habitsPerUser, String passwordHash) {
+        List<Object[]> userRows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            userRows.add(new Object[]{USERNAME_PREFIX + i, passwordHash, Role.ROLE_USER.name()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password, role) VALUES (?, ?, ?)",
+                userRows, BATCH_SIZE, (ps, row) -> {
+                    ps.setString(1, (String) row[0]);
+                    ps.setString(2, (String) row[1]);
+                    ps.setString(3, (String) row[2]);
+                });
+
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE ? ORDER BY id", Long.class, USERNAME_PREFIX + "%");
+
+        Frequency[] frequencies = Frequency.values();
+        Date yesterday = Date.valueOf(LocalDate.now().minusDays(1));
+        List<Object[]> habitRows = new ArrayList<>(userIds.size() * habitsPerUser);
+        for (Long userId : userIds) {
+            for (int j = 0; j < habitsPerUser; j++) {
+                int streak = (int) ((userId * 31 + j) % 60);
+                habitRows.add(new Object[]{"Habit " + j, frequencies[j % frequencies.length].name(),
+                        streak, streak + j, yesterday, userId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO habits (name, frequency, target_count, current_streak, "
+                        + "longest_streak, last_completed, user_id) VALUES (?, ?, 1, ?, ?, ?, ?)",
+                habitRows, BATCH_SIZE, (ps, row) -> {
+                    ps.setString(1, (String) row[0]);
+                    ps.setString(2, (String) row[1]);
+                    ps.setInt(3, (Integer) row[2]);
+                    ps.setInt(4, (Integer) row[3]);
+                    ps.setDate(5, (Date) row[4]);
+                    ps.setLong(6, (Long) row[5]);
+                });
+
+        return userIds;
+    }
+
+    // userId → ids de sus hábitos, en una sola consulta
+    Map<Long, List<Long>> habitIdsByUser() {
+        Map<Long, List<Long>> habitIds = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, id FROM habits ORDER BY id", rs -> {
+            habitIds.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2));
+        });
+        return habitIds;
+    }
+}
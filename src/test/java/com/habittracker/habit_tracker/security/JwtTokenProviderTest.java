@@ -0,0 +1,122 @@
+package com.habittracker.habit_tracker.security;
+
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Caché de claims verificados: la segunda vez no se verifica la firma, la entrada deja de valer
+ * cuando caduca el token y un token revocado se rechaza aunque sus claims sigan en la caché.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JwtTokenProviderTest {
+
+    private static final String USERNAME = "jwtcacheuser";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    private User user;
+
+    @BeforeAll
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .username(USERNAME)
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+    }
+
+    @Test
+    void getClaims_SecondCallServedFromCache() {
+        String token = jwtTokenProvider.generateToken(user);
+        double verified = validations("verified");
+        double cached = validations("cached");
+
+        assertNotNull(jwtTokenProvider.getClaims(token));
+        assertNotNull(jwtTokenProvider.getClaims(token));
+
+        assertEquals(verified + 1, validations("verified"));
+        assertEquals(cached + 1, validations("cached"));
+        // Otra firma no comparte la entrada del token bueno
+        assertNull(jwtTokenProvider.getClaims(token.substring(0, token.length() - 2) + "xx"));
+    }
+
+    @Test
+    void getClaims_CachedTokenExpires() throws Exception {
+        // exp tiene precisión de segundos: a 2 s vista, caducado tras esperar 2,5 s
+        Date now = new Date();
+        String token = Jwts.builder()
+                .subject(USERNAME)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 2_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertNotNull(jwtTokenProvider.getClaims(token));
+        Thread.sleep(2_500);
+
+        assertNull(jwtTokenProvider.getClaims(token));
+        assertNull(jwtTokenProvider.getClaims(token));
+    }
+
+    @Test
+    void revokedToken_RejectedWhileClaimsCached() throws Exception {
+        String token = "Bearer " + jwtTokenProvider.generateToken(user);
+        mockMvc.perform(get("/api/habits").header("Authorization", token))
+                .andExpect(status().isOk());
+
+        tokenRevocationRegistry.revokeTokensFor(USERNAME);
+
+        // Los claims siguen en la caché; la revocación se comprueba igualmente en cada petición (anónima → 403)
+        assertNotNull(jwtTokenProvider.getClaims(token.substring(7)));
+        mockMvc.perform(get("/api/habits").header("Authorization", token))
+                .andExpect(status().isForbidden());
+
+        // Un token emitido después (iat en un segundo posterior) vuelve a valer
+        Thread.sleep(1_100);
+        mockMvc.perform(get("/api/habits").header("Authorization", "Bearer " + jwtTokenProvider.generateToken(user)))
+                .andExpect(status().isOk());
+    }
+
+    private double validations(String result) {
+        return meterRegistry.get("jwt.validation").tag("result", result).timer().count();
+    }
+}
@@ -0,0 +1,110 @@
+package com.habittracker.habit_tracker.security;
+
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.rate-limit.groups.auth.paths=/api/auth/**",
+        "app.rate-limit.groups.auth.key=IP",
+        "app.rate-limit.groups.auth.capacity=2",
+        "app.rate-limit.groups.auth.refill-period=1h",
+        "app.rate-limit.groups.habits.paths=/api/habits/**",
+        "app.rate-limit.groups.habits.key=USER",
+        "app.rate-limit.groups.habits.capacity=1",
+        "app.rate-limit.groups.habits.refill-period=1h"
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Test
+    void authGroup_RejectsOverCapacityPerIp() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(login("10.0.0.1")).andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(login("10.0.0.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.status").value(429));
+
+        // Otra IP tiene su propio bucket
+        mockMvc.perform(login("10.0.0.2")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void authGroup_TrustsForwardedForOnlyFromProxy() throws Exception {
+        // Desde un proxy de confianza (red privada) cuenta el cliente de X-Forwarded-For
+        mockMvc.perform(login("10.0.0.50", "203.0.113.7")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login("10.0.0.51", "203.0.113.7")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login("10.0.0.50", "203.0.113.7")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(login("10.0.0.50", "203.0.113.8")).andExpect(status().isUnauthorized());
+
+        // Desde una IP pública la cabecera se ignora: cambiarla no da un bucket nuevo
+        mockMvc.perform(login("198.51.100.1", "192.0.2.1")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login("198.51.100.1", "192.0.2.2")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login("198.51.100.1", "192.0.2.3")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void habitsGroup_KeysBucketsByUser() throws Exception {
+        String alice = token(1001L, "ratelimit-alice");
+        String bob = token(1002L, "ratelimit-bob");
+
+        // Los usuarios no existen en BD: solo importa si el filtro deja pasar o no
+        mockMvc.perform(get("/api/habits/rankings/DAILY").header("Authorization", alice))
+                .andExpect(status().is(not(429)));
+        mockMvc.perform(get("/api/habits/rankings/DAILY").header("Authorization", alice))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/habits/rankings/DAILY").header("Authorization", bob))
+                .andExpect(status().is(not(429)));
+    }
+
+    private RequestBuilder login(String ip) {
+        return post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"nobody\",\"password\":\"wrong\"}");
+    }
+
+    private RequestBuilder login(String ip, String forwardedFor) {
+        return post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                })
+                .header("X-Forwarded-For", forwardedFor)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"nobody\",\"password\":\"wrong\"}");
+    }
+
+    private String token(Long id, String username) {
+        return "Bearer " + jwtTokenProvider.generateToken(User.builder()
+                .id(id)
+                .username(username)
+                .role(Role.ROLE_USER)
+                .build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.habittracker.habit_tracker.security;
+
+import com.habittracker.habit_tracker.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las revocaciones se guardan en token_revocations: otra instancia (o la misma tras reiniciar)
+ * las ve al releer la tabla.
+ */
+@SpringBootTest
+class TokenRevocationRegistryTest {
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Test
+    void revocation_VisibleToAnotherInstanceAfterRefresh() {
+        Date issuedAt = new Date(System.currentTimeMillis() - 5_000);
+        TokenRevocationRegistry otherInstance = new TokenRevocationRegistry(tokenRevocationRepository, jwtExpiration);
+        assertFalse(otherInstance.isRevoked("revokeduser", issuedAt));
+
+        // Dos veces: la segunda actualiza la fila existente
+        tokenRevocationRegistry.revokeTokensFor("revokeduser");
+        tokenRevocationRegistry.revokeTokensFor("revokeduser");
+        otherInstance.refresh();
+
+        assertTrue(otherInstance.isRevoked("revokeduser", issuedAt));
+        assertFalse(otherInstance.isRevoked("revokeduser", new Date(System.currentTimeMillis() + 5_000)));
+    }
+}
@@ -0,0 +1,55 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.CustomUserDetailsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Borrar un usuario saca su principal de la caché después del commit: una carga concurrente
+ * que todavía lo ve en la BD no lo deja cacheado.
+ */
+@SpringBootTest
+class AdminServiceTest {
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void deleteUser_ConcurrentLoadBeforeCommit_NotLeftInCache() {
+        User user = userRepository.save(User.builder()
+                .username("evictuser")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+        userDetailsService.loadUserByUsername(user.getUsername());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            adminService.deleteUser(user.getId());
+            userRepository.flush();
+            // Otra petición, fuera de la transacción, carga al usuario antes del commit
+            CompletableFuture.runAsync(() -> userDetailsService.loadUserByUsername(user.getUsername())).join();
+        });
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> userDetailsService.loadUserByUsername(user.getUsername()));
+    }
+}
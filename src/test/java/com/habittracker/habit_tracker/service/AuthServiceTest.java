@@ -68,7 +68,7 @@ class AuthServiceTest {
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(passwordEncoder.matches("password123", "encodedPassword")).thenReturn(true);
-        when(jwtTokenProvider.generateToken("testuser")).thenReturn("jwt-token-123");
+        when(jwtTokenProvider.generateToken(user)).thenReturn("jwt-token-123");
 
         JwtResponse response = authService.login(request);
 
@@ -0,0 +1,107 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.dto.request.HabitRequest;
+import com.habittracker.habit_tracker.dto.response.HabitResponse;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * La lista cacheada (userHabits) se corrige en sitio tras cada commit, sin volver a la BD,
+ * y una escritura que hace rollback no la toca.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HabitCacheSynchronizerTest {
+
+    private static final String PATCH_USER = "cachepatchuser";
+    private static final String ROLLBACK_USER = "cacherollbackuser";
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void createUsers() {
+        for (String username : List.of(PATCH_USER, ROLLBACK_USER)) {
+            userRepository.save(User.builder()
+                    .username(username)
+                    .password("password")
+                    .role(Role.ROLE_USER)
+                    .build());
+        }
+    }
+
+    @Test
+    void habitChanges_PatchCachedList() {
+        HabitResponse read = habitService.createHabit(request("Read"), PATCH_USER);
+        HabitResponse run = habitService.createHabit(request("Run"), PATCH_USER);
+        habitService.getAllUserHabits(PATCH_USER);
+
+        habitService.updateHabit(read.getId(), request("Read more"), PATCH_USER);
+        habitService.completeHabit(run.getId(), PATCH_USER);
+        HabitResponse walk = habitService.createHabit(request("Walk"), PATCH_USER);
+        habitService.deleteHabit(read.getId(), PATCH_USER);
+
+        List<HabitResponse> cached = cachedHabits(PATCH_USER);
+        assertEquals(List.of(run.getId(), walk.getId()), ids(cached));
+        assertEquals(1, cached.get(0).getCurrentStreak());
+        assertEquals("Walk", cached.get(1).getName());
+    }
+
+    @Test
+    void rolledBackUpdate_LeavesCachedList() {
+        HabitResponse swim = habitService.createHabit(request("Swim"), ROLLBACK_USER);
+        habitService.getAllUserHabits(ROLLBACK_USER);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            habitService.updateHabit(swim.getId(), request("Swim twice"), ROLLBACK_USER);
+            throw new IllegalStateException("rollback");
+        }));
+
+        HabitResponse cached = cachedHabits(ROLLBACK_USER).stream()
+                .filter(h -> h.getId().equals(swim.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Swim", cached.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<HabitResponse> cachedHabits(String username) {
+        Cache.ValueWrapper cached = cacheManager.getCache(HabitCacheSynchronizer.USER_HABITS).get(username);
+        assertNotNull(cached, "userHabits entry was evicted instead of patched");
+        return (List<HabitResponse>) cached.get();
+    }
+
+    private static List<Long> ids(List<HabitResponse> habits) {
+        return habits.stream().map(HabitResponse::getId).collect(Collectors.toList());
+    }
+
+    private static HabitRequest request(String name) {
+        return new HabitRequest(name, null, Frequency.DAILY, 1);
+    }
+}
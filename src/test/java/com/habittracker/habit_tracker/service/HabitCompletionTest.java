@@ -0,0 +1,259 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.dto.request.HabitRequest;
+import com.habittracker.habit_tracker.dto.response.HabitResponse;
+import com.habittracker.habit_tracker.exceptions.BadRequestException;
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.HabitCompletion;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.HabitCompletionRepository;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * completeHabit con el UPDATE condicional: mismas rachas que StreakCalculator,
+ * una sola racha sumada cuando dos peticiones llegan a la vez y ninguna perdida
+ * por una edición concurrente del hábito. También el objetivo por periodo y el historial.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HabitCompletionTest {
+
+    private static final String USERNAME = "completiontest";
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private HabitCompletionRepository habitCompletionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final StreakCalculator streakCalculator = new StreakCalculator();
+
+    private User user;
+
+    @BeforeAll
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .username(USERNAME)
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+    }
+
+    @Test
+    void completeHabit_MatchesStreakCalculator() {
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.with(DayOfWeek.MONDAY);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        List<LocalDate> lastCompletedDates = Arrays.asList(null,
+                today.minusDays(1), today.minusDays(2),
+                weekStart, weekStart.minusDays(1), weekStart.minusWeeks(1), weekStart.minusWeeks(1).minusDays(1),
+                monthStart, monthStart.minusDays(1), monthStart.minusMonths(1), monthStart.minusMonths(1).minusDays(1));
+
+        for (Frequency frequency : Frequency.values()) {
+            for (LocalDate lastCompleted : lastCompletedDates) {
+                if (lastCompleted != null && !lastCompleted.isBefore(today)) {
+                    continue;
+                }
+                for (int longestStreak : new int[]{3, 7}) {
+                    Habit expected = habit(frequency, lastCompleted, 3, longestStreak);
+                    Habit saved = habitRepository.save(habit(frequency, lastCompleted, 3, longestStreak));
+                    streakCalculator.applyCompletion(expected, today);
+
+                    HabitResponse response = habitService.completeHabit(saved.getId(), USERNAME);
+
+                    String label = frequency + " last=" + lastCompleted + " longest=" + longestStreak;
+                    assertEquals(expected.getCurrentStreak(), response.getCurrentStreak(), label);
+                    assertEquals(expected.getLongestStreak(), response.getLongestStreak(), label);
+                    assertEquals(today, response.getLastCompleted(), label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void completeHabit_ConcurrentRequests_CountOnce() throws Exception {
+        LocalDate today = LocalDate.now();
+        Habit habit = habitRepository.save(habit(Frequency.DAILY, today.minusDays(1), 3, 3));
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HabitResponse>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit((Callable<HabitResponse>) () -> {
+                    start.await();
+                    return habitService.completeHabit(habit.getId(), USERNAME);
+                }));
+            }
+            start.countDown();
+
+            int completed = 0;
+            for (Future<HabitResponse> future : futures) {
+                try {
+                    future.get();
+                    completed++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(BadRequestException.class, e.getCause());
+                }
+            }
+            assertEquals(1, completed);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Habit reloaded = habitRepository.findById(habit.getId()).orElseThrow();
+        assertEquals(4, reloaded.getCurrentStreak());
+        assertEquals(4, reloaded.getLongestStreak());
+        assertEquals(1, habitCompletionRepository.countSince(habit.getId(), today));
+    }
+
+    @Test
+    void updateHabit_DuringCompletion_KeepsStreak() throws Exception {
+        LocalDate today = LocalDate.now();
+        Habit habit = habitRepository.save(habit(Frequency.DAILY, today.minusDays(1), 3, 3));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch completed = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            // Completado sin confirmar mientras llega la edición
+            Future<?> completion = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                habitService.completeHabit(habit.getId(), USERNAME);
+                completed.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(completed.await(5, TimeUnit.SECONDS));
+
+            Future<HabitResponse> update = executor.submit(() -> habitService.updateHabit(habit.getId(),
+                    new HabitRequest("Renamed", null, Frequency.DAILY, 7), USERNAME));
+            // Margen para que la edición lea el hábito (o se quede esperando al bloqueo) antes del commit
+            Thread.sleep(200);
+            commit.countDown();
+            completion.get(5, TimeUnit.SECONDS);
+
+            HabitResponse updated = update.get(5, TimeUnit.SECONDS);
+            assertEquals("Renamed", updated.getName());
+            assertEquals(4, updated.getCurrentStreak());
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+
+        Habit reloaded = habitRepository.findById(habit.getId()).orElseThrow();
+        assertEquals("Renamed", reloaded.getName());
+        assertEquals(4, reloaded.getCurrentStreak());
+        assertEquals(4, reloaded.getLongestStreak());
+        assertEquals(today, reloaded.getLastCompleted());
+    }
+
+    @Test
+    void completeHabit_TargetReached_Rejected() {
+        LocalDate today = LocalDate.now();
+
+        for (Frequency frequency : List.of(Frequency.WEEKLY, Frequency.MONTHLY)) {
+            // Objetivo 1 ya cubierto por una fila del historial en el periodo actual
+            Habit habit = habit(frequency, null, 0, 0);
+            habit.setTargetCount(1);
+            Long habitId = habitRepository.save(habit).getId();
+            saveCompletion(habitId, today);
+
+            BadRequestException e = assertThrows(BadRequestException.class,
+                    () -> habitService.completeHabit(habitId, USERNAME));
+            assertEquals("Habit target already reached this "
+                    + (frequency == Frequency.WEEKLY ? "week" : "month"), e.getMessage());
+
+            Habit reloaded = habitRepository.findById(habitId).orElseThrow();
+            assertEquals(0, reloaded.getCurrentStreak());
+            assertNull(reloaded.getLastCompleted());
+            assertEquals(1, habitCompletionRepository.countSince(habitId, today));
+        }
+    }
+
+    @Test
+    void getCompletionHistory_ReturnsRangeNewestFirst() {
+        LocalDate today = LocalDate.now();
+        Habit habit = habitRepository.save(habit(Frequency.DAILY, today.minusDays(1), 1, 1));
+        saveCompletion(habit.getId(), today.minusDays(40));
+        saveCompletion(habit.getId(), today.minusDays(3));
+        // El completado de hoy entra en el historial
+        habitService.completeHabit(habit.getId(), USERNAME);
+
+        assertEquals(List.of(today, today.minusDays(3)),
+                habitService.getCompletionHistory(habit.getId(), today.minusDays(7), today, USERNAME));
+        assertEquals(List.of(today.minusDays(40)),
+                habitService.getCompletionHistory(habit.getId(), today.minusDays(40), today.minusDays(4), USERNAME));
+    }
+
+    @Test
+    void getCompletionHistory_InvalidRange_Rejected() {
+        LocalDate today = LocalDate.now();
+        Long habitId = habitRepository.save(habit(Frequency.DAILY, null, 0, 0)).getId();
+
+        assertThrows(BadRequestException.class,
+                () -> habitService.getCompletionHistory(habitId, today, today.minusDays(1), USERNAME));
+        assertThrows(BadRequestException.class, () -> habitService.getCompletionHistory(
+                habitId, today.minusDays(HabitService.MAX_HISTORY_DAYS), today, USERNAME));
+        // El máximo justo se acepta
+        assertEquals(List.of(), habitService.getCompletionHistory(
+                habitId, today.minusDays(HabitService.MAX_HISTORY_DAYS - 1), today, USERNAME));
+    }
+
+    private void saveCompletion(Long habitId, LocalDate completedOn) {
+        transactionTemplate.executeWithoutResult(status -> habitCompletionRepository.save(
+                new HabitCompletion(habitRepository.getReferenceById(habitId), completedOn)));
+    }
+
+    private Habit habit(Frequency frequency, LocalDate lastCompleted, int currentStreak, int longestStreak) {
+        return Habit.builder()
+                .name("Completion " + frequency)
+                .frequency(frequency)
+                .targetCount(7)
+                .currentStreak(currentStreak)
+                .longestStreak(longestStreak)
+                .lastCompleted(lastCompleted)
+                .user(user)
+                .build();
+    }
+}
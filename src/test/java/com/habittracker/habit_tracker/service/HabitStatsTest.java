@@ -0,0 +1,119 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.dto.request.HabitRequest;
+import com.habittracker.habit_tracker.dto.response.HabitResponse;
+import com.habittracker.habit_tracker.dto.response.HabitStatsResponse;
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * getUserStats en una consulta: los agregados coinciden con los de cada hábito (sin los borrados),
+ * y la entrada cacheada es solo del día: con otra fecha, o tras una escritura, se recalcula.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HabitStatsTest {
+
+    private static final String AGGREGATE_USER = "statsaggregateuser";
+    private static final String DAY_USER = "statsdayuser";
+
+    @Autowired
+    private HabitService habitService;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeAll
+    void seed() {
+        LocalDate today = LocalDate.now();
+        User user = createUser(AGGREGATE_USER);
+        habitRepository.save(habit(user, today, 5, 9));
+        habitRepository.save(habit(user, today.minusDays(1), 2, 2));
+        habitRepository.save(habit(user, null, 0, 4));
+        Habit deleted = habitRepository.save(habit(user, today, 30, 30));
+        habitService.deleteHabit(deleted.getId(), AGGREGATE_USER);
+
+        createUser(DAY_USER);
+    }
+
+    @Test
+    void getUserStats_MatchesPerHabitValues() {
+        LocalDate today = LocalDate.now();
+        List<HabitResponse> habits = habitService.getAllUserHabits(AGGREGATE_USER);
+        long completedToday = habits.stream().filter(h -> today.equals(h.getLastCompleted())).count();
+
+        HabitStatsResponse stats = habitService.getUserStats(AGGREGATE_USER);
+
+        // El hábito borrado (racha 30) no cuenta
+        assertEquals(3, habits.size());
+        assertEquals(habits.size(), stats.getTotalHabits());
+        assertEquals(completedToday, stats.getCompletedToday());
+        assertEquals(habits.stream().mapToInt(HabitResponse::getCurrentStreak).sum(), stats.getTotalCurrentStreakSum());
+        assertEquals(habits.stream().mapToInt(HabitResponse::getLongestStreak).max().orElse(0), stats.getBestStreak());
+        assertEquals(33.33, stats.getCompletionRateToday());
+        assertEquals(habits.size() - completedToday, stats.getHabitsNeedingAttention());
+    }
+
+    @Test
+    void getUserStats_CachedOnlyForTheDay() {
+        LocalDate today = LocalDate.now();
+        Cache cache = cacheManager.getCache(HabitCacheSynchronizer.USER_STATS);
+        HabitStatsResponse stale = new HabitStatsResponse(99, 99, 99, 99, 100.0, 0);
+
+        // La entrada de ayer no se sirve: al cambiar el día la clave es otra
+        cache.put(DAY_USER + ":" + today.minusDays(1), stale);
+        HabitStatsResponse fresh = habitService.getUserStats(DAY_USER);
+        assertNotSame(stale, fresh);
+        assertEquals(0, fresh.getTotalHabits());
+
+        // La de hoy sí, hasta que una escritura del usuario la descarta
+        cache.put(DAY_USER + ":" + today, stale);
+        assertSame(stale, habitService.getUserStats(DAY_USER));
+        habitService.createHabit(new HabitRequest("Day", null, Frequency.DAILY, 1), DAY_USER);
+        assertEquals(1, habitService.getUserStats(DAY_USER).getTotalHabits());
+    }
+
+    private User createUser(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+    }
+
+    private static Habit habit(User user, LocalDate lastCompleted, int currentStreak, int longestStreak) {
+        return Habit.builder()
+                .name("Stats " + currentStreak)
+                .frequency(Frequency.DAILY)
+                .targetCount(1)
+                .currentStreak(currentStreak)
+                .longestStreak(longestStreak)
+                .lastCompleted(lastCompleted)
+                .user(user)
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.config.SseProperties;
+import com.habittracker.habit_tracker.event.HabitChangedEvent;
+import com.habittracker.habit_tracker.repository.TokenRevocationRepository;
+import com.habittracker.habit_tracker.security.TokenRevocationRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * HabitStreamHub sin Spring: un cliente con la escritura bloqueada no deja sin envíos
+ * al resto, y las conexiones se cierran al revocar el token. El flush se lanza a mano.
+ */
+class HabitStreamBackpressureTest {
+
+    private final SseProperties properties = new SseProperties();
+    private final TokenRevocationRegistry tokenRevocationRegistry = new TokenRevocationRegistry(
+            mock(TokenRevocationRepository.class), 60_000);
+    private HabitStreamHub hub;
+
+    @AfterEach
+    void shutdown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void blockedSend_DoesNotStallOtherConnections() throws Exception {
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setSenderThreads(1);
+        properties.setSendTimeout(Duration.ofMillis(100));
+        hub = new HabitStreamHub(properties, mock(RankingBoard.class), tokenRevocationRegistry,
+                new SimpleMeterRegistry());
+
+        // El cliente lento ocupa el único hilo de envío
+        BlockingEmitter slow = new BlockingEmitter();
+        hub.subscribe("slow", Set.of(), new Date(), null, slow);
+        hub.onHabitChanged(event("slow", 1L));
+        hub.flush();
+        assertTrue(slow.entered.await(2, TimeUnit.SECONDS));
+
+        // El envío del rápido queda en cola detrás
+        RecordingEmitter fast = new RecordingEmitter();
+        hub.subscribe("fast", Set.of(), new Date(), null, fast);
+        hub.onHabitChanged(event("fast", 2L));
+        hub.flush();
+
+        // Pasado sendTimeout el lento sale del hub y otro hilo atiende la cola
+        Thread.sleep(150);
+        hub.flush();
+        assertTrue(fast.sent.await(2, TimeUnit.SECONDS), "fast connection starved by the blocked one");
+        assertEquals(1, hub.connectionCount());
+
+        // Al desbloquearse, el propio hilo completa el emitter atascado
+        slow.release.countDown();
+        assertTrue(slow.completed.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void revokedToken_ClosesConnection() throws Exception {
+        properties.setFlushInterval(Duration.ofHours(1));
+        hub = new HabitStreamHub(properties, mock(RankingBoard.class), tokenRevocationRegistry,
+                new SimpleMeterRegistry());
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.subscribe("revoked", Set.of(), new Date(System.currentTimeMillis() - 5_000), null, emitter);
+        tokenRevocationRegistry.revokeTokensFor("revoked");
+        hub.flush();
+
+        assertEquals(0, hub.connectionCount());
+        assertTrue(emitter.completed.await(2, TimeUnit.SECONDS));
+    }
+
+    private static HabitChangedEvent event(String username, Long habitId) {
+        return new HabitChangedEvent(HabitChangedEvent.Type.DELETED, username, habitId, null);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        final CountDownLatch sent = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sent.countDown();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+
+    // Simula un socket lleno: send no vuelve hasta release
+    private static class BlockingEmitter extends RecordingEmitter {
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
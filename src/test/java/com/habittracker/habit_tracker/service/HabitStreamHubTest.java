@@ -0,0 +1,146 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import com.habittracker.habit_tracker.security.JwtTokenProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Canal SSE: tops al conectar, cambios del mismo hábito agrupados en un evento
+ * y "resync" cuando se llena el buffer. El flush se lanza a mano.
+ */
+@SpringBootTest(properties = {
+        "app.sse.flush-interval=1h",
+        "app.sse.max-pending-events=3"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HabitStreamHubTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HabitStreamHub habitStreamHub;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private String token;
+    private final List<Long> habitIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        User user = userRepository.save(User.builder()
+                .username("streamuser")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+        for (int i = 0; i < 5; i++) {
+            habitIds.add(habitRepository.save(Habit.builder()
+                    .name("Stream " + i)
+                    .frequency(Frequency.WEEKLY)
+                    .targetCount(1)
+                    .longestStreak(100 + i)
+                    .user(user)
+                    .build()).getId());
+        }
+        token = "Bearer " + jwtTokenProvider.generateToken(user);
+    }
+
+    @Test
+    void stream_SendsRankingsThenCoalescedChanges() throws Exception {
+        MockHttpServletResponse response = openStream();
+
+        habitStreamHub.flush();
+        String initial = await(response, content -> content.contains("event:ranking"));
+        assertTrue(initial.contains("\"frequency\":\"WEEKLY\""));
+
+        rename(habitIds.get(0), "First");
+        rename(habitIds.get(0), "Second");
+        habitStreamHub.flush();
+
+        String updates = await(response, content -> content.contains("Second")).substring(initial.length());
+        assertEquals(1, count(updates, "event:habit"));
+        assertFalse(updates.contains("First"));
+    }
+
+    @Test
+    void stream_FullBuffer_SendsResync() throws Exception {
+        MockHttpServletResponse response = openStream();
+        habitStreamHub.flush();
+        String initial = await(response, content -> content.contains("event:ranking"));
+
+        for (int i = 1; i < 5; i++) {
+            rename(habitIds.get(i), "Overflow " + i);
+        }
+        habitStreamHub.flush();
+
+        // Cuatro hábitos distintos con max-pending-events=3: los cambios se descartan y llega "resync"
+        String updates = await(response, content -> content.contains("event:resync")).substring(initial.length());
+        assertEquals(0, count(updates, "event:habit"));
+    }
+
+    private MockHttpServletResponse openStream() throws Exception {
+        return mockMvc.perform(get("/api/habits/stream")
+                        .param("rankings", "WEEKLY")
+                        .header("Authorization", token))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private void rename(Long habitId, String name) throws Exception {
+        mockMvc.perform(put("/api/habits/" + habitId)
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"frequency\":\"WEEKLY\",\"targetCount\":1}"))
+                .andExpect(status().isOk());
+    }
+
+    // Los envíos van por el pool del hub: se espera a que lleguen a la respuesta
+    private static String await(MockHttpServletResponse response, Predicate<String> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = response.getContentAsString();
+        while (!condition.test(content) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertTrue(condition.test(content), content);
+        return content;
+    }
+
+    private static int count(String content, String token) {
+        return content.split(token, -1).length - 1;
+    }
+}
@@ -0,0 +1,96 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.dto.response.HabitResponse;
+import com.habittracker.habit_tracker.dto.response.RankingEntry;
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * RankingBoard sin Spring: un hábito rechazado con el tablero lleno
+ * vuelve a aparecer cuando los borrados obligan a recargar, y la recarga
+ * periódica recoge lo que cambió en otras instancias.
+ */
+class RankingBoardTest {
+
+    private static final User USER = User.builder().id(1L).username("boarduser").build();
+
+    private final HabitRepository habitRepository = mock(HabitRepository.class);
+    private final RankingBoard rankingBoard = new RankingBoard(habitRepository);
+
+    @Test
+    void fullBoard_RejectedEntry_ReloadedAfterDeletions() {
+        // 49 hábitos: cabe todo, el tablero queda completo
+        List<Habit> seeded = new ArrayList<>();
+        for (long id = 1; id < RankingBoard.CAPACITY; id++) {
+            seeded.add(habit(id, 100));
+        }
+        when(habitRepository.findTopByFrequency(eq(Frequency.DAILY), any())).thenReturn(seeded);
+        rankingBoard.seed();
+
+        // El 50 llena el tablero; el 51 queda por debajo del último y se rechaza
+        rankingBoard.update(response(habit(50, 100)), USER.getUsername());
+        rankingBoard.update(response(habit(51, 1)), USER.getUsername());
+
+        // Se borran 41: quedan 9, menos que TOP_SIZE
+        for (long id = 1; id <= 41; id++) {
+            rankingBoard.remove(id);
+        }
+
+        List<Habit> remaining = new ArrayList<>();
+        for (long id = 42; id <= 50; id++) {
+            remaining.add(habit(id, 100));
+        }
+        remaining.add(habit(51, 1));
+        when(habitRepository.findTopByFrequency(eq(Frequency.DAILY), any())).thenReturn(remaining);
+
+        List<RankingEntry> top = rankingBoard.top(Frequency.DAILY);
+        assertTrue(top.stream().anyMatch(entry -> entry.getHabitId() == 51L), "habit 51 missing after reload");
+    }
+
+    @Test
+    void reloadAll_PicksUpChangesFromOtherInstances() {
+        when(habitRepository.findTopByFrequency(any(), any())).thenReturn(List.of());
+        rankingBoard.seed();
+
+        // Otra instancia completó un hábito: aquí no llegó el evento, solo está en la BD
+        when(habitRepository.findTopByFrequency(eq(Frequency.DAILY), any())).thenReturn(List.of(habit(7, 30)));
+        rankingBoard.reloadAll();
+
+        assertTrue(rankingBoard.top(Frequency.DAILY).stream().anyMatch(entry -> entry.getHabitId() == 7L));
+    }
+
+    private static Habit habit(long id, int longestStreak) {
+        return Habit.builder()
+                .id(id)
+                .name("Board " + id)
+                .frequency(Frequency.DAILY)
+                .targetCount(1)
+                .longestStreak(longestStreak)
+                .user(USER)
+                .build();
+    }
+
+    private static HabitResponse response(Habit habit) {
+        return HabitResponse.builder()
+                .id(habit.getId())
+                .name(habit.getName())
+                .frequency(habit.getFrequency())
+                .targetCount(habit.getTargetCount())
+                .currentStreak(habit.getCurrentStreak())
+                .longestStreak(habit.getLongestStreak())
+                .userId(USER.getId())
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.habittracker.habit_tracker.service;
+
+import com.habittracker.habit_tracker.model.Habit;
+import com.habittracker.habit_tracker.model.JobCheckpoint;
+import com.habittracker.habit_tracker.model.User;
+import com.habittracker.habit_tracker.model.enums.Frequency;
+import com.habittracker.habit_tracker.model.enums.Role;
+import com.habittracker.habit_tracker.repository.HabitRepository;
+import com.habittracker.habit_tracker.repository.JobCheckpointRepository;
+import com.habittracker.habit_tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * StreakExpiryJob: las rachas que pone a 0 son las que StreakCalculator da por rotas,
+ * tras una caída retoma desde el checkpoint y dos ejecuciones a la vez se reparten los lotes.
+ * Lotes de 2 para recorrer varios.
+ */
+@SpringBootTest(properties = "app.streak-expiry.chunk-size=2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StreakExpiryJobTest {
+
+    @Autowired
+    private StreakExpiryJob streakExpiryJob;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final StreakCalculator streakCalculator = new StreakCalculator();
+
+    private User user;
+
+    @BeforeAll
+    void createUser() {
+        user = userRepository.save(User.builder()
+                .username("expirytest")
+                .password("password")
+                .role(Role.ROLE_USER)
+                .build());
+    }
+
+    @BeforeEach
+    void clearCheckpoint() {
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void run_ResetsBrokenStreaksOnly() {
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.with(DayOfWeek.MONDAY);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        List<LocalDate> lastCompletedDates = Arrays.asList(null, today,
+                today.minusDays(1), today.minusDays(2),
+                weekStart, weekStart.minusDays(1), weekStart.minusWeeks(1), weekStart.minusWeeks(1).minusDays(1),
+                monthStart, monthStart.minusDays(1), monthStart.minusMonths(1), monthStart.minusMonths(1).minusDays(1));
+
+        List<Habit> habits = new ArrayList<>();
+        for (Frequency frequency : Frequency.values()) {
+            for (LocalDate lastCompleted : lastCompletedDates) {
+                habits.add(habitRepository.save(habit(frequency, lastCompleted)));
+            }
+        }
+
+        streakExpiryJob.run(today);
+
+        for (Habit habit : habits) {
+            boolean broken = streakCalculator.isStreakBroken(habit.getFrequency(), habit.getLastCompleted(), today);
+            Habit reloaded = habitRepository.findById(habit.getId()).orElseThrow();
+            assertEquals(broken ? 0 : 3, reloaded.getCurrentStreak(),
+                    habit.getFrequency() + " last=" + habit.getLastCompleted());
+            assertEquals(5, reloaded.getLongestStreak());
+        }
+        assertNotNull(checkpointRepository.findById(StreakExpiryJob.JOB_NAME).orElseThrow().getFinishedAt());
+        assertEquals(0, streakExpiryJob.run(today));
+    }
+
+    @Test
+    void run_ResumesAfterCheckpoint() {
+        LocalDate today = LocalDate.now();
+        Habit done = habitRepository.save(habit(Frequency.DAILY, today.minusDays(5)));
+        Habit pending = habitRepository.save(habit(Frequency.DAILY, today.minusDays(5)));
+
+        // Caída después de confirmar el lote que terminaba en "done"
+        checkpointRepository.save(JobCheckpoint.builder()
+                .jobName(StreakExpiryJob.JOB_NAME)
+                .runDate(today)
+                .lastId(done.getId())
+                .build());
+
+        streakExpiryJob.run(today);
+
+        assertEquals(3, habitRepository.findById(done.getId()).orElseThrow().getCurrentStreak());
+        Habit reset = habitRepository.findById(pending.getId()).orElseThrow();
+        assertEquals(0, reset.getCurrentStreak());
+        // El reset cuenta como cambio para /api/habits/changes
+        assertTrue(reset.getChangeSeq() > done.getChangeSeq());
+    }
+
+    @Test
+    void run_ConcurrentInstancesShareTheWork() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 10; i++) {
+            habitRepository.save(habit(Frequency.DAILY, today.minusDays(5)));
+        }
+        int broken = habitRepository.findBrokenStreakIds(0L, today, Integer.MAX_VALUE).size();
+
+        // Dos "instancias" a la vez, sin checkpoint previo: ni clave duplicada ni lotes repetidos
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> streakExpiryJob.run(today));
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> streakExpiryJob.run(today));
+
+        assertEquals(broken, first.join() + second.join());
+        assertEquals(0, habitRepository.findBrokenStreakIds(0L, today, Integer.MAX_VALUE).size());
+        assertNotNull(checkpointRepository.findById(StreakExpiryJob.JOB_NAME).orElseThrow().getFinishedAt());
+    }
+
+    private Habit habit(Frequency frequency, LocalDate lastCompleted) {
+        return Habit.builder()
+                .name("Expiry " + frequency)
+                .frequency(frequency)
+                .targetCount(1)
+                .currentStreak(3)
+                .longestStreak(5)
+                .lastCompleted(lastCompleted)
+                .user(user)
+                .build();
+    }
+}